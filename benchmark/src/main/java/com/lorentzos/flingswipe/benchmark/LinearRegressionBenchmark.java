@@ -0,0 +1,60 @@
+package com.lorentzos.flingswipe.benchmark;
+
+import com.lorentzos.flingswipe.LinearRegression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting the exit trajectory: the batch fit over all the points against the streaming one,
+ * which only adds the newest point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LinearRegressionBenchmark {
+    @Param({"2", "16", "64"})
+    public int points;
+
+    private float[] x;
+    private float[] y;
+    private LinearRegression.Streaming streaming;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        x = new float[points];
+        y = new float[points];
+        for (int i = 0; i < points; i++) {
+            x[i] = 165f + i * 9f;
+            y[i] = 400f + i * 2f + (i % 3);
+        }
+        streaming = new LinearRegression.Streaming(Math.max(2, points));
+        for (int i = 0; i < points; i++) {
+            streaming.add(x[i], y[i]);
+        }
+    }
+
+    @Benchmark
+    public double batch() {
+        LinearRegression regression = new LinearRegression(x, y);
+        return regression.slope() * 1080 + regression.intercept();
+    }
+
+    @Benchmark
+    public double streaming() {
+        final int i = next;
+        // Wraps before it can overflow, however long the benchmark runs.
+        next = (next + 1) % points;
+        streaming.add(x[i], y[i]);
+        return streaming.slope() * 1080 + streaming.intercept();
+    }
+}
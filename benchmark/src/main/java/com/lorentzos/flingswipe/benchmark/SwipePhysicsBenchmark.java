@@ -0,0 +1,79 @@
+package com.lorentzos.flingswipe.benchmark;
+
+import com.lorentzos.flingswipe.LinearRegression;
+import com.lorentzos.flingswipe.SwipePhysics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work FlingCardListener does per move event and per release, on a 1080px wide stack with
+ * a 250dp card at xxhdpi.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwipePhysicsBenchmark {
+    private static final int MOVES = 64;
+
+    private SwipePhysics physics;
+    private LinearRegression.Streaming trajectory;
+    private float[] moveX;
+    private float[] moveY;
+    private int move;
+
+    @Setup
+    public void setUp() {
+        physics = new SwipePhysics(15f);
+        physics.setGeometry(165f, 400f, 750, 510, 1080);
+        physics.setMinFlingVelocity(1600f);
+        physics.setMinFlingDistance(24f);
+
+        // A drag towards the bottom right.
+        moveX = new float[MOVES];
+        moveY = new float[MOVES];
+        for (int i = 0; i < MOVES; i++) {
+            moveX[i] = 165f + i * 9f;
+            moveY[i] = 400f + i * 2f + (i % 3);
+        }
+
+        trajectory = new LinearRegression.Streaming(16);
+        for (int i = 0; i < MOVES; i++) {
+            trajectory.add(moveX[i], moveY[i]);
+        }
+    }
+
+    /**
+     * Rotation and scroll progress, as computed on every ACTION_MOVE.
+     */
+    @Benchmark
+    public float perMove() {
+        final int i = move++ & (MOVES - 1);
+        trajectory.add(moveX[i], moveY[i]);
+        return physics.getRotation(moveX[i], true) + physics.getScrollProgressPercent(moveX[i]);
+    }
+
+    /**
+     * Border and fling tests, exit point, duration and rotation, as computed on ACTION_UP.
+     */
+    @Benchmark
+    public float perRelease() {
+        final float posX = moveX[MOVES - 1];
+        final float posY = moveY[MOVES - 1];
+        float result = 0;
+        if (physics.movedBeyondRightBorder(posX) || physics.isFling(2400f, posX, false)) {
+            result += physics.getExitPoint(trajectory, posX, posY, physics.getParentWidth());
+            result += physics.getExitDuration(false, 2400f, posX);
+            result += physics.getExitX(false);
+            result += physics.getExitRotation(false, true);
+        }
+        return result;
+    }
+}
@@ -109,4 +109,92 @@ public class LinearRegression {
         s += String.format("%.2f N + %.2f", slope(), intercept());
         return s + "  (R^2 = " + String.format("%.3f", R2()) + ")";
     }
+
+    /**
+     * The <tt>Streaming</tt> class fits the same least squares line incrementally, over the
+     * most recent <em>N</em> data points only. It keeps running sums of <em>x</em>,
+     * <em>y</em>, <em>x</em><sup>2</sup> and <em>xy</em> in a bounded ring buffer, so adding a
+     * point and reading the fit take constant time and allocate nothing.
+     */
+    public static class Streaming {
+        private final float[] x;
+        private final float[] y;
+        private int head;
+        private int n;
+        private double sumX, sumY, sumXX, sumXY;
+
+        /**
+         * @param capacity the number of most recent data points the fit is computed over
+         * @throws java.lang.IllegalArgumentException if the capacity is less than two
+         */
+        public Streaming(int capacity) {
+            if (capacity < 2) {
+                throw new IllegalArgumentException("capacity must be at least 2");
+            }
+            x = new float[capacity];
+            y = new float[capacity];
+        }
+
+        /**
+         * Adds the data point <tt>(y, x)</tt>, dropping the oldest one if the buffer is full.
+         */
+        public void add(float xi, float yi) {
+            if (n == x.length) {
+                // Evict the oldest point, which is the one about to be overwritten.
+                sumX -= x[head];
+                sumY -= y[head];
+                sumXX -= (double) x[head] * x[head];
+                sumXY -= (double) x[head] * y[head];
+            } else {
+                n++;
+            }
+            x[head] = xi;
+            y[head] = yi;
+            sumX += xi;
+            sumY += yi;
+            sumXX += (double) xi * xi;
+            sumXY += (double) xi * yi;
+            head = (head + 1) % x.length;
+        }
+
+        /**
+         * Removes all the data points.
+         */
+        public void clear() {
+            head = 0;
+            n = 0;
+            sumX = sumY = sumXX = sumXY = 0.0;
+        }
+
+        /**
+         * @return the number of data points the fit is currently computed over
+         */
+        public int size() {
+            return n;
+        }
+
+        /**
+         * Returns the slope &beta; of the best-fit line over the recent data points.
+         *
+         * @return the slope &beta;, or <tt>NaN</tt> if there are less than two points or they
+         * all share the same <em>x</em>
+         */
+        public double slope() {
+            double xxBar = n * sumXX - sumX * sumX;
+            if (n < 2 || xxBar <= 0.0) {
+                return Double.NaN;
+            }
+            return (n * sumXY - sumX * sumY) / xxBar;
+        }
+
+        /**
+         * Returns the <em>y</em>-intercept &alpha; of the best-fit line over the recent data
+         * points.
+         *
+         * @return the <em>y</em>-intercept &alpha;, or <tt>NaN</tt> when {@link #slope()} is
+         */
+        public double intercept() {
+            return (sumY - slope() * sumX) / n;
+        }
+    }
 }
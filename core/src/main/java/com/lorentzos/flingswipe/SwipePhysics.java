@@ -0,0 +1,219 @@
+package com.lorentzos.flingswipe;
+
+/**
+ * The arithmetic of a card swipe: rotation, scroll progress, borders and the exit trajectory.
+ * It only knows the geometry of the card and its parent, so it runs on any JVM and
+ * <code>FlingCardListener</code> just feeds it the card position.
+ */
+public class SwipePhysics {
+    /**
+     * The longest a swiped card takes to leave, in milliseconds.
+     */
+    public static final long EXIT_DURATION = 100;
+    /**
+     * The shortest a swiped card takes to leave, in milliseconds.
+     */
+    public static final long MIN_EXIT_DURATION = 50;
+
+    private static final float MAX_COS = (float) Math.cos(Math.toRadians(45));
+    private static final int VELOCITY_UNITS = 1000;
+
+    private float baseRotationDegrees;
+    private float minFlingVelocity;
+    private float minFlingDistance;
+
+    private float objectX = 0f;
+    private float objectY = 0f;
+    private int objectH = 0;
+    private int objectW = 0;
+    private float halfWidth = 0f;
+    private int parentWidth = 0;
+
+    public SwipePhysics(float baseRotationDegrees) {
+        this.baseRotationDegrees = baseRotationDegrees;
+    }
+
+    /**
+     * @param objectX     The x of the card at rest.
+     * @param objectY     The y of the card at rest.
+     * @param objectW     The width of the card.
+     * @param objectH     The height of the card.
+     * @param parentWidth The width of the stack.
+     */
+    public void setGeometry(float objectX, float objectY, int objectW, int objectH,
+                            int parentWidth) {
+        this.objectX = objectX;
+        this.objectY = objectY;
+        this.objectW = objectW;
+        this.objectH = objectH;
+        this.halfWidth = objectW / 2f;
+        this.parentWidth = parentWidth;
+    }
+
+    /**
+     * @return true if the geometry is the same as the given one.
+     */
+    public boolean hasGeometry(float objectX, float objectY, int objectW, int objectH,
+                               int parentWidth) {
+        return this.objectX == objectX && this.objectY == objectY && this.objectW == objectW
+                && this.objectH == objectH && this.parentWidth == parentWidth;
+    }
+
+    /**
+     * @param posX       The current x of the card.
+     * @param touchBelow True if the card was grabbed on its lower half.
+     * @return the rotation degrees of the card.
+     */
+    public float getRotation(float posX, boolean touchBelow) {
+        float distObjectX = posX - objectX;
+        float rotation = baseRotationDegrees * 2f * distObjectX / parentWidth;
+        if (touchBelow) {
+            rotation = -rotation;
+        }
+        return rotation;
+    }
+
+    /**
+     * @return -1 at the left border, 1 at the right border and 0 at rest.
+     */
+    public float getScrollProgressPercent(float posX) {
+        if (movedBeyondLeftBorder(posX)) {
+            return -1f;
+        } else if (movedBeyondRightBorder(posX)) {
+            return 1f;
+        } else {
+            float zeroToOneValue = (posX + halfWidth - leftBorder()) /
+                    (rightBorder() - leftBorder());
+            return zeroToOneValue * 2f - 1f;
+        }
+    }
+
+    public boolean movedBeyondLeftBorder(float posX) {
+        return posX + halfWidth < leftBorder();
+    }
+
+    public boolean movedBeyondRightBorder(float posX) {
+        return posX + halfWidth > rightBorder();
+    }
+
+    public float leftBorder() {
+        return parentWidth / 4f;
+    }
+
+    public float rightBorder() {
+        return 3 * parentWidth / 4f;
+    }
+
+    /**
+     * A quick flick towards one side counts as a swipe even if the card has not crossed the
+     * border yet.
+     *
+     * @param velocityX The horizontal velocity on release, in pixels per second.
+     */
+    public boolean isFling(float velocityX, float posX, boolean isLeft) {
+        final float distance = posX - objectX;
+        if (isLeft) {
+            return velocityX <= -minFlingVelocity && distance <= -minFlingDistance;
+        } else {
+            return velocityX >= minFlingVelocity && distance >= minFlingDistance;
+        }
+    }
+
+    /**
+     * The card leaves at the speed it was released with, but never slower than
+     * {@link #EXIT_DURATION}.
+     */
+    public long getExitDuration(boolean isLeft, float velocityX, float posX) {
+        final float speed = isLeft ? -velocityX : velocityX;
+        if (speed <= 0) {
+            return EXIT_DURATION;
+        }
+        final float distance = Math.abs(getExitX(isLeft) - posX);
+        final long duration = (long) (distance * VELOCITY_UNITS / speed);
+        return Math.max(MIN_EXIT_DURATION, Math.min(EXIT_DURATION, duration));
+    }
+
+    /**
+     * @return the x at which the card is out of the stack.
+     */
+    public float getExitX(boolean isLeft) {
+        if (isLeft) {
+            return -objectW - getRotationWidthOffset();
+        } else {
+            return parentWidth + getRotationWidthOffset();
+        }
+    }
+
+    /**
+     * Extends the line fitted through the most recent positions of the card. If those do not
+     * define a line, falls back to the line through the start and the current position.
+     */
+    public float getExitPoint(LinearRegression.Streaming trajectory, float posX, float posY,
+                              int exitXPoint) {
+        final double fittedSlope = trajectory.slope();
+        if (!Double.isNaN(fittedSlope) && !Double.isInfinite(fittedSlope)) {
+            // Your typical y = ax + b linear regression.
+            return (float) (fittedSlope * exitXPoint + trajectory.intercept());
+        }
+
+        if (posX == objectX) {
+            return posY;
+        }
+        final float slope = (posY - objectY) / (posX - objectX);
+        final float intercept = objectY - slope * objectX;
+        return slope * exitXPoint + intercept;
+    }
+
+    public float getExitRotation(boolean isLeft, boolean touchBelow) {
+        float rotation = baseRotationDegrees * 2f * (parentWidth - objectX) / parentWidth;
+        if (touchBelow) {
+            rotation = -rotation;
+        }
+        if (isLeft) {
+            rotation = -rotation;
+        }
+        return rotation;
+    }
+
+    /**
+     * When the object rotates it's width becomes bigger.
+     * The maximum width is at 45 degrees.
+     * <p/>
+     * The below method calculates the width offset of the rotation.
+     */
+    public float getRotationWidthOffset() {
+        return objectW / MAX_COS - objectW;
+    }
+
+    public float getObjectX() {
+        return objectX;
+    }
+
+    public float getObjectY() {
+        return objectY;
+    }
+
+    public int getObjectW() {
+        return objectW;
+    }
+
+    public int getObjectH() {
+        return objectH;
+    }
+
+    public int getParentWidth() {
+        return parentWidth;
+    }
+
+    public void setRotationDegrees(float degrees) {
+        this.baseRotationDegrees = degrees;
+    }
+
+    public void setMinFlingVelocity(float velocity) {
+        this.minFlingVelocity = velocity;
+    }
+
+    public void setMinFlingDistance(float distance) {
+        this.minFlingDistance = distance;
+    }
+}
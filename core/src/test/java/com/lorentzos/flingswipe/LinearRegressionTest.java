@@ -0,0 +1,139 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LinearRegressionTest {
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void batchFitsAnExactLine() {
+        LinearRegression regression = new LinearRegression(
+                new float[]{0, 1, 2, 3}, new float[]{3, 5, 7, 9});
+
+        assertEquals(2, regression.slope(), DELTA);
+        assertEquals(3, regression.intercept(), DELTA);
+        assertEquals(1, regression.R2(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchRejectsArraysOfDifferentLengths() {
+        new LinearRegression(new float[]{0, 1}, new float[]{0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamingRejectsCapacityBelowTwo() {
+        new LinearRegression.Streaming(1);
+    }
+
+    @Test
+    public void streamingFitsAnExactLine() {
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(8);
+        for (int i = 0; i < 4; i++) {
+            streaming.add(i, 3 + 2 * i);
+        }
+
+        assertEquals(4, streaming.size());
+        assertEquals(2, streaming.slope(), DELTA);
+        assertEquals(3, streaming.intercept(), DELTA);
+    }
+
+    @Test
+    public void streamingIsUndefinedBelowTwoPoints() {
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(4);
+        assertTrue(Double.isNaN(streaming.slope()));
+        assertTrue(Double.isNaN(streaming.intercept()));
+
+        streaming.add(10, 20);
+        assertTrue(Double.isNaN(streaming.slope()));
+        assertTrue(Double.isNaN(streaming.intercept()));
+    }
+
+    @Test
+    public void streamingIsUndefinedForAVerticalLine() {
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(4);
+        streaming.add(165.5f, 400);
+        streaming.add(165.5f, 420);
+        streaming.add(165.5f, 433);
+
+        assertTrue(Double.isNaN(streaming.slope()));
+        assertTrue(Double.isNaN(streaming.intercept()));
+    }
+
+    @Test
+    public void streamingIsUndefinedOnceOnlyAVerticalLineIsLeftInTheWindow() {
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(3);
+        streaming.add(1.1f, 1);
+        streaming.add(2.7f, 2);
+        streaming.add(5.3f, 5);
+        streaming.add(7.9f, 1);
+        streaming.add(7.9f, 2);
+        streaming.add(7.9f, 3);
+
+        assertTrue(Double.isNaN(streaming.slope()));
+    }
+
+    @Test
+    public void streamingEvictsTheOldestPoints() {
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(3);
+        // Off the line, then dropped.
+        streaming.add(-5, 100);
+        streaming.add(-4, -100);
+        for (int i = 0; i < 3; i++) {
+            streaming.add(i, 1 - i);
+        }
+
+        assertEquals(3, streaming.size());
+        assertEquals(-1, streaming.slope(), DELTA);
+        assertEquals(1, streaming.intercept(), DELTA);
+    }
+
+    @Test
+    public void streamingMatchesTheBatchFitOverTheSameWindow() {
+        final int capacity = 16;
+        final float[] x = new float[64];
+        final float[] y = new float[64];
+        for (int i = 0; i < x.length; i++) {
+            // A drag which speeds up and wobbles, in screen coordinates.
+            x[i] = 165f + i * 9f + (i * i) * 0.5f;
+            y[i] = 400f + i * 2f + (i % 5) * 3f;
+        }
+
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(capacity);
+        for (int i = 0; i < x.length; i++) {
+            streaming.add(x[i], y[i]);
+            if (i == 0) {
+                continue;
+            }
+
+            final int start = Math.max(0, i + 1 - capacity);
+            final int count = i + 1 - start;
+            final float[] windowX = new float[count];
+            final float[] windowY = new float[count];
+            System.arraycopy(x, start, windowX, 0, count);
+            System.arraycopy(y, start, windowY, 0, count);
+            LinearRegression batch = new LinearRegression(windowX, windowY);
+
+            assertEquals("slope after " + (i + 1) + " points", batch.slope(), streaming.slope(),
+                    1e-6 * Math.max(1, Math.abs(batch.slope())));
+            assertEquals("intercept after " + (i + 1) + " points", batch.intercept(),
+                    streaming.intercept(), 1e-3 * Math.max(1, Math.abs(batch.intercept())));
+        }
+    }
+
+    @Test
+    public void streamingStartsOverAfterClear() {
+        LinearRegression.Streaming streaming = new LinearRegression.Streaming(4);
+        streaming.add(0, 100);
+        streaming.add(1, -100);
+        streaming.clear();
+
+        assertEquals(0, streaming.size());
+        streaming.add(0, 1);
+        streaming.add(1, 2);
+        assertEquals(1, streaming.slope(), DELTA);
+        assertEquals(1, streaming.intercept(), DELTA);
+    }
+}
@@ -0,0 +1,122 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A 750px wide card at rest at x 165 on a 1080px wide stack, so its center is at rest in the
+ * middle between the borders at 270 and 810.
+ */
+public class SwipePhysicsTest {
+    private static final float DELTA = 1e-3f;
+    private static final float ROTATION_WIDTH_OFFSET =
+            (float) (750 / Math.cos(Math.toRadians(45)) - 750);
+
+    private SwipePhysics physics;
+
+    @Before
+    public void setUp() {
+        physics = new SwipePhysics(15f);
+        physics.setGeometry(165f, 400f, 750, 510, 1080);
+        physics.setMinFlingVelocity(1600f);
+        physics.setMinFlingDistance(24f);
+    }
+
+    @Test
+    public void remembersItsGeometry() {
+        assertTrue(physics.hasGeometry(165f, 400f, 750, 510, 1080));
+        assertFalse(physics.hasGeometry(165f, 400f, 750, 510, 720));
+        assertEquals(270f, physics.leftBorder(), DELTA);
+        assertEquals(810f, physics.rightBorder(), DELTA);
+    }
+
+    @Test
+    public void rotatesWithTheDistanceFromRest() {
+        assertEquals(0f, physics.getRotation(165f, false), DELTA);
+        // 15 degrees * 2 over the whole width of the stack.
+        assertEquals(15f, physics.getRotation(165f + 540f, false), DELTA);
+        assertEquals(-15f, physics.getRotation(165f + 540f, true), DELTA);
+        assertEquals(-15f, physics.getRotation(165f - 540f, false), DELTA);
+    }
+
+    @Test
+    public void scrollProgressGoesFromBorderToBorder() {
+        assertEquals(0f, physics.getScrollProgressPercent(165f), DELTA);
+        assertEquals(0.5f, physics.getScrollProgressPercent(165f + 135f), DELTA);
+        assertEquals(-1f, physics.getScrollProgressPercent(-200f), DELTA);
+        assertEquals(1f, physics.getScrollProgressPercent(600f), DELTA);
+    }
+
+    @Test
+    public void crossingABorderCountsAsASwipe() {
+        assertFalse(physics.movedBeyondLeftBorder(-100f));
+        assertTrue(physics.movedBeyondLeftBorder(-110f));
+        assertFalse(physics.movedBeyondRightBorder(430f));
+        assertTrue(physics.movedBeyondRightBorder(440f));
+    }
+
+    @Test
+    public void aFlingNeedsBothSpeedAndDistance() {
+        assertTrue(physics.isFling(2000f, 165f + 30f, false));
+        assertFalse(physics.isFling(2000f, 165f + 10f, false));
+        assertFalse(physics.isFling(1000f, 165f + 30f, false));
+        assertTrue(physics.isFling(-2000f, 165f - 30f, true));
+        // Towards the other side.
+        assertFalse(physics.isFling(2000f, 165f + 30f, true));
+    }
+
+    @Test
+    public void exitsBeyondTheStackIncludingTheRotatedWidth() {
+        assertEquals(-750f - ROTATION_WIDTH_OFFSET, physics.getExitX(true), DELTA);
+        assertEquals(1080f + ROTATION_WIDTH_OFFSET, physics.getExitX(false), DELTA);
+    }
+
+    @Test
+    public void exitDurationFollowsTheReleaseVelocity() {
+        final float posX = 465f;
+        final float distance = physics.getExitX(false) - posX;
+
+        assertEquals(SwipePhysics.EXIT_DURATION, physics.getExitDuration(false, 0f, posX));
+        assertEquals(SwipePhysics.EXIT_DURATION, physics.getExitDuration(false, -5000f, posX));
+        assertEquals((long) (distance * 1000 / 10000f),
+                physics.getExitDuration(false, 10000f, posX));
+        assertEquals(SwipePhysics.MIN_EXIT_DURATION,
+                physics.getExitDuration(false, 100000f, posX));
+        assertEquals(SwipePhysics.EXIT_DURATION, physics.getExitDuration(false, 100f, posX));
+    }
+
+    @Test
+    public void exitPointExtendsTheFittedTrajectory() {
+        LinearRegression.Streaming trajectory = new LinearRegression.Streaming(16);
+        for (int i = 0; i < 8; i++) {
+            trajectory.add(165f + i * 10f, 400f + i * 5f);
+        }
+
+        // y = 0.5 x + 317.5
+        assertEquals(0.5f * 1080 + 317.5f,
+                physics.getExitPoint(trajectory, 235f, 435f, 1080), DELTA);
+    }
+
+    @Test
+    public void exitPointFallsBackToTheLineFromRest() {
+        LinearRegression.Streaming trajectory = new LinearRegression.Streaming(16);
+        trajectory.add(465f, 460f);
+
+        // Through (165, 400) and (465, 460).
+        assertEquals(400f + 0.2f * (1080 - 165),
+                physics.getExitPoint(trajectory, 465f, 460f, 1080), DELTA);
+        assertEquals(460f, physics.getExitPoint(trajectory, 165f, 460f, 1080), DELTA);
+    }
+
+    @Test
+    public void exitRotationTurnsTowardsTheExit() {
+        final float rotation = 15f * 2f * (1080 - 165) / 1080;
+        assertEquals(rotation, physics.getExitRotation(false, false), DELTA);
+        assertEquals(-rotation, physics.getExitRotation(true, false), DELTA);
+        assertEquals(-rotation, physics.getExitRotation(false, true), DELTA);
+    }
+}
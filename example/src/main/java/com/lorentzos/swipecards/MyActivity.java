@@ -6,6 +6,7 @@ import android.content.Context;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.Toast;
 
@@ -41,7 +42,17 @@ public class MyActivity extends Activity {
         al.add("css");
         al.add("javascript");
 
-        arrayAdapter = new ArrayAdapter<>(this, R.layout.item, R.id.helloText, al);
+        arrayAdapter = new ArrayAdapter<String>(this, R.layout.item, R.id.helloText, al) {
+            @Override
+            @TargetApi(11)
+            public View getView(int position, View convertView, ViewGroup parent) {
+                View view = super.getView(position, convertView, parent);
+                // Cards are recycled, so clear the indicators left over from the last swipe.
+                view.findViewById(R.id.item_swipe_right_indicator).setAlpha(0);
+                view.findViewById(R.id.item_swipe_left_indicator).setAlpha(0);
+                return view;
+            }
+        };
 
         flingContainer.setAdapter(arrayAdapter);
         flingContainer.setFlingListener(new SwipeFlingAdapterView.onFlingListener() {
@@ -104,7 +115,7 @@ public class MyActivity extends Activity {
      */
     @OnClick(R.id.right)
     public void right() {
-        flingContainer.getTopCardListener().selectRight();
+        flingContainer.swipeRight();
     }
 
     /**
@@ -112,6 +123,6 @@ public class MyActivity extends Activity {
      */
     @OnClick(R.id.left)
     public void left() {
-        flingContainer.getTopCardListener().selectLeft();
+        flingContainer.swipeLeft();
     }
 }
@@ -0,0 +1,105 @@
+package com.lorentzos.flingswipe;
+
+import android.graphics.Bitmap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of decoded card images, bounded by their size in bytes and keyed
+ * by the item id of the card. Safe to use from any thread, so images can be decoded and put in
+ * the background, then taken in {@link android.widget.Adapter#getView} on the main thread.
+ * <p/>
+ * Evicted bitmaps are not recycled, as a card may still be showing them.
+ */
+public class CardBitmapCache {
+    private final LinkedHashMap<Long, Bitmap> bitmaps = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxSize;
+    private int size = 0;
+
+    /**
+     * @param maxSize The max total size of the bitmaps, in bytes.
+     */
+    public CardBitmapCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the bitmap of the item, or null. Marks it as the most recently used.
+     */
+    public synchronized Bitmap get(long itemId) {
+        return bitmaps.get(itemId);
+    }
+
+    /**
+     * Caches the bitmap of the item, evicting the least recently used ones beyond the max size.
+     *
+     * @return the bitmap previously cached for the item, or null.
+     */
+    public synchronized Bitmap put(long itemId, Bitmap bitmap) {
+        if (bitmap == null) {
+            throw new NullPointerException("bitmap == null");
+        }
+        size += sizeOf(bitmap);
+        final Bitmap previous = bitmaps.put(itemId, bitmap);
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+        trimToSize(maxSize);
+        return previous;
+    }
+
+    /**
+     * @return the bitmap which was cached for the item, or null.
+     */
+    public synchronized Bitmap remove(long itemId) {
+        final Bitmap previous = bitmaps.remove(itemId);
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+        return previous;
+    }
+
+    public synchronized void evictAll() {
+        bitmaps.clear();
+        size = 0;
+    }
+
+    /**
+     * @param maxSize The new max total size of the bitmaps, in bytes.
+     */
+    public synchronized void resize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    /**
+     * @return the total size of the cached bitmaps, in bytes.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int maxSize() {
+        return maxSize;
+    }
+
+    private void trimToSize(int maxSize) {
+        final Iterator<Map.Entry<Long, Bitmap>> eldest = bitmaps.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    private static int sizeOf(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+}
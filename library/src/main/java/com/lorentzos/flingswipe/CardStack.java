@@ -0,0 +1,91 @@
+package com.lorentzos.flingswipe;
+
+/**
+ * A bounded window of cards, backed by a ring buffer. Removing the first card and appending a
+ * new one both take constant time, no matter how many cards went through the stack.
+ *
+ * @param <T> The type of the cards.
+ */
+public class CardStack<T> {
+    private final Object[] items;
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * @param capacity The max number of cards the stack holds at any time.
+     */
+    public CardStack(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        items = new Object[capacity];
+    }
+
+    /**
+     * Appends a card at the bottom of the stack.
+     *
+     * @return false if the stack is full and the card was not added.
+     */
+    public boolean offer(T item) {
+        if (size == items.length) {
+            return false;
+        }
+        items[(head + size) % items.length] = item;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the card at the top of the stack.
+     *
+     * @return the removed card or <code>null</code> if the stack is empty.
+     */
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T item = get(0);
+        items[head] = null;
+        head = (head + 1) % items.length;
+        size--;
+        return item;
+    }
+
+    /**
+     * @param position The position from the top of the stack.
+     * @return the card at this position.
+     * @throws IndexOutOfBoundsException if the position is not in the stack.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + ", size is "
+                    + size);
+        }
+        return (T) items[(head + position) % items.length];
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            items[(head + i) % items.length] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public int remainingCapacity() {
+        return items.length - size;
+    }
+}
@@ -0,0 +1,334 @@
+package com.lorentzos.flingswipe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * An adapter over a {@link CardStack}, so that
+ * {@link SwipeFlingAdapterView.onFlingListener#removeFirstObjectInAdapter()} is a constant time
+ * {@link #removeFirst()} and the memory used stays bounded, however long the session lasts.
+ * Subclasses only have to implement {@link #getView(int, android.view.View,
+ * android.view.ViewGroup)}.
+ *
+ * @param <T> The type of the cards.
+ */
+public abstract class CardStackAdapter<T> extends BaseAdapter {
+    private final CardStack<T> cards;
+    private final boolean stableIds;
+    // The ids of the keys of the cards held, null without stable ids.
+    private final HashMap<Object, ItemId> itemIds;
+    private long nextItemId = 0;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private UpdateObserver updateObserver;
+    // Counts the changes of the cards and the submitted lists, to tell stale diffs apart.
+    private int modCount = 0;
+    private int submitCount = 0;
+
+    /**
+     * @param capacity The max number of cards the adapter holds at any time.
+     */
+    public CardStackAdapter(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity  The max number of cards the adapter holds at any time.
+     * @param stableIds Whether to give every card an id of its own, which stays the same as long
+     *                  as a card with the same {@link #getItemKey(Object) key} is held. Otherwise
+     *                  the id of a card is its position.
+     */
+    public CardStackAdapter(int capacity, boolean stableIds) {
+        cards = new CardStack<>(capacity);
+        this.stableIds = stableIds;
+        itemIds = stableIds ? new HashMap<Object, ItemId>(capacity * 2) : null;
+    }
+
+    @Override
+    public int getCount() {
+        return cards.size();
+    }
+
+    @Override
+    public T getItem(int position) {
+        return cards.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (!stableIds) {
+            return position;
+        }
+        return itemIds.get(getItemKey(cards.get(position))).id;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return stableIds;
+    }
+
+    /**
+     * Appends a card at the bottom of the stack.
+     *
+     * @return false if the adapter is full and the card was not added.
+     */
+    public boolean add(T item) {
+        boolean added = cards.offer(item);
+        if (added) {
+            retainId(item);
+            modCount++;
+            notifyDataSetChanged();
+        }
+        return added;
+    }
+
+    /**
+     * Appends as many of the given cards as fit, notifying the observers once.
+     *
+     * @return the number of cards added.
+     */
+    public int addAll(Collection<? extends T> items) {
+        int added = 0;
+        for (T item : items) {
+            if (!cards.offer(item)) {
+                break;
+            }
+            retainId(item);
+            added++;
+        }
+        if (added > 0) {
+            modCount++;
+            notifyDataSetChanged();
+        }
+        return added;
+    }
+
+    /**
+     * Removes the card at the top of the stack.
+     *
+     * @return the removed card or <code>null</code> if the adapter is empty.
+     */
+    public T removeFirst() {
+        if (cards.isEmpty()) {
+            return null;
+        }
+        T item = cards.poll();
+        releaseId(item);
+        modCount++;
+        notifyDataSetChanged();
+        return item;
+    }
+
+    public void clear() {
+        cards.clear();
+        if (stableIds) {
+            itemIds.clear();
+        }
+        modCount++;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Replace the cards with the given ones, diffing them against the current cards on the
+     * executor. A {@link SwipeFlingAdapterView} then keeps the views of the cards which stayed in
+     * place, rebinds the ones whose contents changed and appends the new ones at the bottom,
+     * instead of building the whole stack again. Only as many cards as the capacity are kept.
+     * <p/>
+     * Must be called on the main thread. A later call supersedes this one, and the diff is
+     * computed again if the cards change before it is applied.
+     *
+     * @param items    The new cards, copied before this method returns.
+     * @param executor The background executor the diff runs on.
+     */
+    public void submitList(List<? extends T> items, Executor executor) {
+        submitDiff(new ArrayList<T>(items), executor, ++submitCount);
+    }
+
+    private void submitDiff(final List<T> newItems, final Executor executor,
+                            final int submission) {
+        final List<T> oldItems = new ArrayList<>(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            oldItems.add(cards.get(i));
+        }
+        final int diffedModCount = modCount;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Update update = diff(oldItems, newItems);
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (submission != submitCount) {
+                            return;
+                        }
+                        if (diffedModCount != modCount) {
+                            submitDiff(newItems, executor, submission);
+                            return;
+                        }
+                        applyUpdate(newItems, update);
+                    }
+                });
+            }
+        });
+    }
+
+    private Update diff(List<T> oldItems, List<T> newItems) {
+        final HashMap<Object, Integer> oldPositions = new HashMap<>(oldItems.size() * 2);
+        for (int i = 0; i < oldItems.size(); i++) {
+            final Object key = getItemKey(oldItems.get(i));
+            if (!oldPositions.containsKey(key)) {
+                oldPositions.put(key, i);
+            }
+        }
+
+        final Update update = new Update(newItems.size());
+        for (int i = 0; i < newItems.size(); i++) {
+            final T newItem = newItems.get(i);
+            final Integer oldPosition = oldPositions.get(getItemKey(newItem));
+            if (oldPosition == null) {
+                update.oldPositions[i] = -1;
+                continue;
+            }
+            update.oldPositions[i] = oldPosition;
+            update.changed[i] = !areContentsTheSame(oldItems.get(oldPosition), newItem);
+        }
+        update.firstDifference = newItems.size();
+        for (int i = 0; i < newItems.size(); i++) {
+            if (!update.isKept(i) || update.isChanged(i)) {
+                update.firstDifference = i;
+                break;
+            }
+        }
+        return update;
+    }
+
+    private void applyUpdate(List<T> newItems, Update update) {
+        final int count = Math.min(newItems.size(), cards.capacity());
+        // The new cards take their ids before the old ones let go of theirs, so that the cards
+        // which stayed keep their ids.
+        for (int i = 0; i < count; i++) {
+            retainId(newItems.get(i));
+        }
+        for (int i = 0; i < cards.size(); i++) {
+            releaseId(cards.get(i));
+        }
+        cards.clear();
+        for (int i = 0; i < count; i++) {
+            cards.offer(newItems.get(i));
+        }
+        modCount++;
+        if (updateObserver != null) {
+            updateObserver.onUpdate(update);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * The identity of a card for {@link #submitList(List, Executor)}. Cards with equal keys are
+     * the same card, possibly with different contents, and share an id if the adapter has stable
+     * ids. Called on the executor, and on the main thread for the ids.
+     *
+     * @return the card itself by default.
+     */
+    protected Object getItemKey(T item) {
+        return item;
+    }
+
+    /**
+     * Whether a card which stayed in the list looks the same, so its view can be kept as it is.
+     * Called on the executor.
+     *
+     * @return {@link Object#equals(Object)} by default.
+     */
+    protected boolean areContentsTheSame(T oldItem, T newItem) {
+        return oldItem.equals(newItem);
+    }
+
+    private void retainId(T item) {
+        if (!stableIds) {
+            return;
+        }
+        final Object key = getItemKey(item);
+        ItemId itemId = itemIds.get(key);
+        if (itemId == null) {
+            itemId = new ItemId(nextItemId++);
+            itemIds.put(key, itemId);
+        }
+        itemId.cardCount++;
+    }
+
+    private void releaseId(T item) {
+        if (!stableIds) {
+            return;
+        }
+        final Object key = getItemKey(item);
+        final ItemId itemId = itemIds.get(key);
+        if (--itemId.cardCount == 0) {
+            itemIds.remove(key);
+        }
+    }
+
+    void setUpdateObserver(UpdateObserver updateObserver) {
+        this.updateObserver = updateObserver;
+    }
+
+    /**
+     * @return how many more cards can be added right now.
+     */
+    public int getRemainingCapacity() {
+        return cards.remainingCapacity();
+    }
+
+    /**
+     * Where every card of a submitted list was before it, delivered right before the change is
+     * notified.
+     */
+    static final class Update {
+        // The previous position of each card, -1 for a new card.
+        final int[] oldPositions;
+        final boolean[] changed;
+        int firstDifference;
+
+        Update(int count) {
+            oldPositions = new int[count];
+            changed = new boolean[count];
+        }
+
+        /**
+         * @return true if the card at this position was already at this position.
+         */
+        boolean isKept(int position) {
+            return position < oldPositions.length && oldPositions[position] == position;
+        }
+
+        /**
+         * @return true if the contents of the card at this position changed.
+         */
+        boolean isChanged(int position) {
+            return changed[position];
+        }
+    }
+
+    /**
+     * The id of a key, and how many of the cards held have that key.
+     */
+    private static final class ItemId {
+        final long id;
+        int cardCount;
+
+        ItemId(long id) {
+            this.id = id;
+        }
+    }
+
+    interface UpdateObserver {
+        void onUpdate(Update update);
+    }
+}
@@ -4,10 +4,15 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.annotation.TargetApi;
 import android.os.Build;
+import android.os.SystemClock;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
 import android.view.animation.AccelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.view.animation.OvershootInterpolator;
 
 /**
@@ -20,20 +25,30 @@ public class FlingCardListener implements View.OnTouchListener {
     private static final int INVALID_POINTER_ID = -1;
     private static final int TOUCH_ABOVE = 0;
     private static final int TOUCH_BELOW = 1;
-    private static final float MAX_COS = (float) Math.cos(Math.toRadians(45));
-
-    private final View frame;
-    private final Object dataObject;
+    private static final Interpolator SNAP_BACK_INTERPOLATOR = new OvershootInterpolator(1.5f);
+    private static final Interpolator EXIT_INTERPOLATOR = new AccelerateInterpolator();
+    private static final int VELOCITY_UNITS = 1000;
+    private static final int TRAJECTORY_SAMPLES = 16;
+    // The platform's minimum fling, 50dp/s, is met by almost any release, a flick is far faster.
+    private static final int FLING_VELOCITY_FACTOR = 16;
+    static final long DEFAULT_SELECT_DURATION = 200;
+    // A critically damped spring is within half a pixel of an exit after about 10 / omega.
+    private static final float EXIT_SETTLE_OMEGA_SECONDS = 10f;
+
+    private View frame;
+    private Object dataObject;
     private final FlingListener mFlingListener;
 
-    private float baseRotationDegrees;
-
-    private float objectX = 0f;
-    private float objectY = 0f;
-    private int objectH = 0;
-    private int objectW = 0;
-    private float halfWidth = 0f;
-    private int parentWidth = 0;
+    private final SwipePhysics physics;
+    private float maxFlingVelocity;
+    private VelocityTracker velocityTracker;
+    private float releaseVelocityX;
+    private SwipeMetrics metrics;
+    private GestureRecorder gestureRecorder;
+    private StackAnimator stackAnimator;
+    private long exitStartTime;
+    private final LinearRegression.Streaming trajectory =
+            new LinearRegression.Streaming(TRAJECTORY_SAMPLES);
 
     private float aPosX;
     private float aPosY;
@@ -44,6 +59,39 @@ public class FlingCardListener implements View.OnTouchListener {
     private int activePointerId = INVALID_POINTER_ID;
     private int touchPosition;
     private boolean isAnimationRunning = false;
+    private boolean isExitingLeft;
+    private boolean isMoving = false;
+    private boolean isSnappingBack = false;
+
+    private final Runnable snapBackEndAction = new Runnable() {
+        @Override
+        public void run() {
+            isSnappingBack = false;
+            onMoveFinished();
+        }
+    };
+
+    private final StackAnimator.EndListener snapBackSpringEnd = new StackAnimator.EndListener() {
+        @Override
+        public void onAnimationEnd(View card) {
+            snapBackEndAction.run();
+        }
+    };
+
+    private final StackAnimator.EndListener exitSpringEnd = new StackAnimator.EndListener() {
+        @Override
+        public void onAnimationEnd(View card) {
+            onExitAnimationEnd();
+        }
+    };
+
+    // A single listener for every exit, so that a swipe does not allocate one.
+    private final AnimatorListenerAdapter exitAnimatorListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            onExitAnimationEnd();
+        }
+    };
 
     @SuppressWarnings("UnusedDeclaration")
     public FlingCardListener(View frame, Object itemAtPosition, FlingListener flingListener) {
@@ -55,36 +103,96 @@ public class FlingCardListener implements View.OnTouchListener {
         super();
         this.frame = frame;
         this.dataObject = itemAtPosition;
-        this.baseRotationDegrees = rotation_degrees;
+        this.physics = new SwipePhysics(rotation_degrees);
         this.mFlingListener = flingListener;
 
+        ViewConfiguration configuration = ViewConfiguration.get(frame.getContext());
+        this.physics.setMinFlingVelocity(configuration.getScaledMinimumFlingVelocity()
+                * FLING_VELOCITY_FACTOR);
+        this.physics.setMinFlingDistance(configuration.getScaledTouchSlop());
+        this.maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+
         if (Build.VERSION.SDK_INT >= 11) {
             setApi11Fields();
         }
     }
 
+    /**
+     * Point the listener to a new card, so that a single instance can serve every card that
+     * reaches the top of the stack. The geometry is only read again if it differs from the
+     * previous card's. A move of the previous card which is still running ends here.
+     *
+     * @param frame          The new card.
+     * @param itemAtPosition The data object of the new card.
+     */
+    public void rebind(View frame, Object itemAtPosition) {
+        // The listener stops whatever it runs for the moving card.
+        onMoveFinished();
+        this.frame = frame;
+        this.dataObject = itemAtPosition;
+
+        aPosX = 0;
+        aPosY = 0;
+        aDownTouchX = 0;
+        aDownTouchY = 0;
+        activePointerId = INVALID_POINTER_ID;
+        isAnimationRunning = false;
+        isSnappingBack = false;
+        trajectory.clear();
+
+        if (Build.VERSION.SDK_INT >= 11 && hasLayoutChanged()) {
+            setApi11Fields();
+        }
+    }
+
+    @TargetApi(11)
+    private boolean hasLayoutChanged() {
+        return !physics.hasGeometry(frame.getX(), frame.getY(), frame.getWidth(),
+                frame.getHeight(), ((ViewGroup) frame.getParent()).getWidth());
+    }
+
     @TargetApi(11)
     private void setApi11Fields() {
-        this.objectX = frame.getX();
-        this.objectY = frame.getY();
-        this.objectH = frame.getHeight();
-        this.objectW = frame.getWidth();
-        this.halfWidth = objectW / 2f;
-        this.parentWidth = ((ViewGroup) frame.getParent()).getWidth();
+        physics.setGeometry(frame.getX(), frame.getY(), frame.getWidth(), frame.getHeight(),
+                ((ViewGroup) frame.getParent()).getWidth());
     }
 
     public boolean onTouch(View view, MotionEvent event) {
         //noinspection SimplifiableIfStatement
         if (Build.VERSION.SDK_INT >= 11) {
-            return handleTouch(event);
+            if (gestureRecorder != null) {
+                gestureRecorder.record(frame, event);
+            }
+            if (metrics == null) {
+                return handleTouch(event);
+            }
+            final long start = System.nanoTime();
+            final boolean handled = handleTouch(event);
+            metrics.onTouchHandled(event, start);
+            return handled;
         }
         return true;
     }
 
     @TargetApi(11)
-    private boolean handleTouch(MotionEvent event) {
+    boolean handleTouch(MotionEvent event) {
+        if (isAnimationRunning) {
+            // The card is already on its way out.
+            return true;
+        }
+        trackVelocity(event);
+
         switch (event.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN:
+                if (isSnappingBack) {
+                    // Catch the card where it is.
+                    if (stackAnimator != null) {
+                        stackAnimator.cancel(frame);
+                    } else {
+                        frame.animate().cancel();
+                    }
+                    isSnappingBack = false;
+                }
                 // From
                 // http://android-developers.blogspot.com/2010/06/making-sense-of-multitouch.html
                 // Save the ID of this pointer.
@@ -103,8 +211,10 @@ public class FlingCardListener implements View.OnTouchListener {
                 if (aPosY == 0) {
                     aPosY = frame.getY();
                 }
+                trajectory.clear();
+                trajectory.add(aPosX, aPosY);
 
-                if (y < objectH / 2) {
+                if (y < physics.getObjectH() / 2) {
                     touchPosition = TOUCH_ABOVE;
                 } else {
                     touchPosition = TOUCH_BELOW;
@@ -112,8 +222,10 @@ public class FlingCardListener implements View.OnTouchListener {
                 break;
 
             case MotionEvent.ACTION_UP:
+                velocityTracker.computeCurrentVelocity(VELOCITY_UNITS, maxFlingVelocity);
+                releaseVelocityX = velocityTracker.getXVelocity(activePointerId);
                 activePointerId = INVALID_POINTER_ID;
-                resetCardViewOnStack();
+                resetCardViewOnStack(releaseVelocityX);
                 break;
 
             case MotionEvent.ACTION_POINTER_DOWN:
@@ -144,67 +256,82 @@ public class FlingCardListener implements View.OnTouchListener {
                 final float dx = xMove - aDownTouchX;
                 final float dy = yMove - aDownTouchY;
 
+                // Batched samples since the last event were relative to the same frame position.
+                for (int h = 0; h < event.getHistorySize(); h++) {
+                    trajectory.add(
+                            aPosX + event.getHistoricalX(pointerIndexMove, h) - aDownTouchX,
+                            aPosY + event.getHistoricalY(pointerIndexMove, h) - aDownTouchY);
+                }
+
+                onMoveStarted();
+
                 // Move the frame.
                 aPosX += dx;
                 aPosY += dy;
+                trajectory.add(aPosX, aPosY);
 
                 // Calculate the rotation degrees.
-                float distObjectX = aPosX - objectX;
-                float rotation = baseRotationDegrees * 2f * distObjectX / parentWidth;
-                if (touchPosition == TOUCH_BELOW) {
-                    rotation = -rotation;
-                }
+                float rotation = physics.getRotation(aPosX, touchPosition == TOUCH_BELOW);
 
                 // In this area would be code for doing something with the view as the frame moves.
                 frame.setX(aPosX);
                 frame.setY(aPosY);
                 frame.setRotation(rotation);
-                mFlingListener.onScroll(getScrollProgressPercent());
+                mFlingListener.onScroll(physics.getScrollProgressPercent(aPosX));
                 break;
 
             case MotionEvent.ACTION_CANCEL:
+                // The gesture was taken away, e.g. by a scrolling parent: no decision.
                 activePointerId = INVALID_POINTER_ID;
+                releaseVelocityX = 0;
+                cancelDrag();
                 break;
         }
 
         return true;
     }
 
+    /**
+     * The card follows the finger, so the pointer is tracked in the parent's coordinates. The
+     * event is moved with setLocation(), which offsets its history as offsetLocation() does and
+     * which Robolectric implements as well.
+     */
     @TargetApi(11)
-    private float getScrollProgressPercent() {
-        if (movedBeyondLeftBorder()) {
-            return -1f;
-        } else if (movedBeyondRightBorder()) {
-            return 1f;
-        } else {
-            float zeroToOneValue = (aPosX + halfWidth - leftBorder()) /
-                    (rightBorder() - leftBorder());
-            return zeroToOneValue * 2f - 1f;
+    private void trackVelocity(MotionEvent event) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
         }
+        if ((event.getAction() & MotionEvent.ACTION_MASK) == MotionEvent.ACTION_DOWN) {
+            velocityTracker.clear();
+        }
+        final float x = event.getX();
+        final float y = event.getY();
+        event.setLocation(x + frame.getX(), y + frame.getY());
+        velocityTracker.addMovement(event);
+        event.setLocation(x, y);
     }
 
     @TargetApi(11)
-    private boolean resetCardViewOnStack() {
-        if (movedBeyondLeftBorder()) {
+    private boolean resetCardViewOnStack(float velocityX) {
+        if (physics.movedBeyondLeftBorder(aPosX) || physics.isFling(velocityX, aPosX, true)) {
             // Left swipe.
-            onSelected(true, getExitPoint(-objectW), 100);
-            mFlingListener.onScroll(-1f);
-        } else if (movedBeyondRightBorder()) {
+            onSelected(true, getExitPoint(-physics.getObjectW()),
+                    physics.getExitDuration(true, velocityX, aPosX));
+            mFlingListener.onScrollReleased(-1f);
+        } else if (physics.movedBeyondRightBorder(aPosX)
+                || physics.isFling(velocityX, aPosX, false)) {
             // Right swipe.
-            onSelected(false, getExitPoint(parentWidth), 100);
-            mFlingListener.onScroll(1f);
+            onSelected(false, getExitPoint(physics.getParentWidth()),
+                    physics.getExitDuration(false, velocityX, aPosX));
+            mFlingListener.onScrollReleased(1f);
         } else {
-            float absMoveDistance = Math.abs(aPosX - objectX);
+            float absMoveDistance = Math.abs(aPosX - physics.getObjectX());
             aPosX = 0;
             aPosY = 0;
             aDownTouchX = 0;
             aDownTouchY = 0;
-            if (Build.VERSION.SDK_INT >= 12) {
-                snapBackNew();
-            } else {
-                snapBackOld();
-            }
-            mFlingListener.onScroll(0f);
+            snapBack(velocityX);
+            mFlingListener.onScrollReleased(0f);
             if (absMoveDistance < 4) {
                 mFlingListener.onClick(dataObject);
             }
@@ -212,53 +339,105 @@ public class FlingCardListener implements View.OnTouchListener {
         return false;
     }
 
+    /**
+     * Sends a dragged card back to its place, as a release without a decision would, except that
+     * it is never a click.
+     */
     @TargetApi(11)
-    private boolean movedBeyondLeftBorder() {
-        return aPosX + halfWidth < leftBorder();
+    private void cancelDrag() {
+        aPosX = 0;
+        aPosY = 0;
+        aDownTouchX = 0;
+        aDownTouchY = 0;
+        if (isMoving) {
+            snapBack(0);
+            mFlingListener.onScrollReleased(0f);
+        }
     }
 
+    /**
+     * @param velocityX The horizontal velocity the card starts with, in pixels per second.
+     */
     @TargetApi(11)
-    private boolean movedBeyondRightBorder() {
-        return aPosX + halfWidth > rightBorder();
+    private void snapBack(float velocityX) {
+        if (stackAnimator != null) {
+            isSnappingBack = true;
+            stackAnimator.animateTo(frame, physics.getObjectX(), physics.getObjectY(), 0,
+                    StackAnimator.SNAP_BACK_STIFFNESS, StackAnimator.SNAP_BACK_DAMPING_RATIO,
+                    snapBackSpringEnd);
+            stackAnimator.setVelocity(frame, velocityX, 0);
+        } else if (Build.VERSION.SDK_INT >= 12) {
+            snapBackNew();
+        } else {
+            snapBackOld();
+        }
     }
 
     @TargetApi(11)
     private void snapBackOld() {
-        frame.setX(objectX);
-        frame.setY(objectY);
+        frame.setX(physics.getObjectX());
+        frame.setY(physics.getObjectY());
         frame.setRotation(0);
+        onMoveFinished();
     }
 
-    @TargetApi(12)
+    @TargetApi(16)
     private void snapBackNew() {
-        frame.animate()
+        ViewPropertyAnimator animator = frame.animate()
+                .setListener(null)
                 .setDuration(200)
-                .setInterpolator(new OvershootInterpolator(1.5f))
-                .x(objectX)
-                .y(objectY)
+                .setInterpolator(SNAP_BACK_INTERPOLATOR)
+                .x(physics.getObjectX())
+                .y(physics.getObjectY())
                 .rotation(0);
+        if (Build.VERSION.SDK_INT >= 16) {
+            isSnappingBack = true;
+            animator.withEndAction(snapBackEndAction);
+        } else {
+            onMoveFinished();
+        }
     }
 
+    /**
+     * Animates the card back to its place from wherever it is, e.g. off the stack after an undo.
+     */
     @TargetApi(11)
-    private float leftBorder() {
-        return parentWidth / 4f;
+    void rewind() {
+        onMoveStarted();
+        snapBack(0);
     }
 
-    @TargetApi(11)
-    private float rightBorder() {
-        return 3 * parentWidth / 4f;
+    /**
+     * The card starts being dragged or animated.
+     */
+    private void onMoveStarted() {
+        if (!isMoving) {
+            isMoving = true;
+            mFlingListener.onMoveStarted();
+        }
+    }
+
+    /**
+     * The card is back at rest, or about to leave the stack.
+     */
+    private void onMoveFinished() {
+        if (isMoving) {
+            isMoving = false;
+            mFlingListener.onMoveFinished();
+        }
     }
 
     @TargetApi(11)
     private void onSelected(final boolean isLeft, float exitY, long duration) {
         isAnimationRunning = true;
-        float exitX;
-        if (isLeft) {
-            exitX = -objectW - getRotationWidthOffset();
-        } else {
-            exitX = parentWidth + getRotationWidthOffset();
+        if (metrics != null) {
+            exitStartTime = SystemClock.uptimeMillis();
         }
-        if (Build.VERSION.SDK_INT >= 12) {
+        onMoveStarted();
+        float exitX = physics.getExitX(isLeft);
+        if (stackAnimator != null) {
+            exitSpring(isLeft, exitX, exitY, duration);
+        } else if (Build.VERSION.SDK_INT >= 12) {
             exitNew(isLeft, exitX, exitY, duration);
         } else {
             exitOld(isLeft, exitX, exitY);
@@ -269,107 +448,180 @@ public class FlingCardListener implements View.OnTouchListener {
     public void exitOld(final boolean isLeft, float exitX, float exitY) {
         this.frame.setX(exitX);
         this.frame.setY(exitY);
-        if (isLeft) {
-            mFlingListener.onCardExited();
-            mFlingListener.leftExit(dataObject);
-        } else {
-            mFlingListener.onCardExited();
-            mFlingListener.rightExit(dataObject);
-        }
-        isAnimationRunning = false;
+        onExited(isLeft);
     }
 
     @TargetApi(12)
     public void exitNew(final boolean isLeft, float exitX, float exitY, long duration) {
+        isExitingLeft = isLeft;
         this.frame.animate()
                 .setDuration(duration)
-                .setInterpolator(new AccelerateInterpolator())
+                .setInterpolator(EXIT_INTERPOLATOR)
                 .x(exitX)
                 .y(exitY)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        if (isLeft) {
-                            mFlingListener.onCardExited();
-                            mFlingListener.leftExit(dataObject);
-                        } else {
-                            mFlingListener.onCardExited();
-                            mFlingListener.rightExit(dataObject);
-                        }
-                        isAnimationRunning = false;
-                    }
-                })
-                .rotation(getExitRotation(isLeft));
+                .setListener(exitAnimatorListener)
+                .rotation(physics.getExitRotation(isLeft, touchPosition == TOUCH_BELOW));
     }
 
     /**
-     * Starts a default left exit animation.
+     * Flings the card out with a critically damped spring, starting at the release velocity.
+     * The spring is all but at the exit point after the given duration, where the exit ends.
      */
-    public void selectLeft() {
-        if (Build.VERSION.SDK_INT >= 11) {
-            if (!isAnimationRunning)
-                onSelected(true, objectY, 200);
+    @TargetApi(11)
+    private void exitSpring(boolean isLeft, float exitX, float exitY, long duration) {
+        isExitingLeft = isLeft;
+        final float omega = EXIT_SETTLE_OMEGA_SECONDS * 1000f / Math.max(1, duration);
+        stackAnimator.animateTo(frame, exitX, exitY,
+                physics.getExitRotation(isLeft, touchPosition == TOUCH_BELOW), omega * omega, 1f,
+                exitSpringEnd);
+        stackAnimator.setVelocity(frame, releaseVelocityX, 0);
+        stackAnimator.setDuration(frame, duration);
+    }
+
+    private void onExitAnimationEnd() {
+        onExited(isExitingLeft);
+    }
+
+    /**
+     * The listener may be rebound to the next card from within these callbacks, so nothing of
+     * the exited card is read after the first one.
+     */
+    private void onExited(boolean isLeft) {
+        final Object exitedObject = dataObject;
+        onMoveFinished();
+        isAnimationRunning = false;
+        if (metrics != null) {
+            metrics.onExitAnimation(SystemClock.uptimeMillis() - exitStartTime);
+        }
+        mFlingListener.onCardExited();
+        if (isLeft) {
+            mFlingListener.leftExit(exitedObject);
         } else {
-            mFlingListener.onCardExited();
-            mFlingListener.leftExit(dataObject);
+            mFlingListener.rightExit(exitedObject);
         }
     }
 
     /**
-     * Starts a default right exit animation.
+     * Starts a default left exit animation. Ignored while the card is already leaving, see
+     * {@link SwipeFlingAdapterView#swipeLeft()} to queue swipes instead.
+     */
+    public void selectLeft() {
+        select(true, DEFAULT_SELECT_DURATION);
+    }
+
+    /**
+     * Starts a default right exit animation. Ignored while the card is already leaving, see
+     * {@link SwipeFlingAdapterView#swipeRight()} to queue swipes instead.
      */
     public void selectRight() {
+        select(false, DEFAULT_SELECT_DURATION);
+    }
+
+    void select(boolean isLeft, long duration) {
+        releaseVelocityX = 0;
         if (Build.VERSION.SDK_INT >= 11) {
             if (!isAnimationRunning)
-                onSelected(false, objectY, 200);
+                onSelected(isLeft, physics.getObjectY(), duration);
         } else {
             mFlingListener.onCardExited();
-            mFlingListener.rightExit(dataObject);
+            if (isLeft) {
+                mFlingListener.leftExit(dataObject);
+            } else {
+                mFlingListener.rightExit(dataObject);
+            }
         }
     }
 
-    @TargetApi(11)
-    private float getExitPoint(int exitXPoint) {
-        float[] x = new float[2];
-        x[0] = objectX;
-        x[1] = aPosX;
-
-        float[] y = new float[2];
-        y[0] = objectY;
-        y[1] = aPosY;
-
-        LinearRegression regression = new LinearRegression(x, y);
+    /**
+     * @return true while a finger is on the card, or the card is dragged, snaps back or exits.
+     */
+    boolean isHeldOrMoving() {
+        return activePointerId != INVALID_POINTER_ID || isMoving;
+    }
 
-        // Your typical y = ax + b linear regression.
-        return (float) regression.slope() * exitXPoint + (float) regression.intercept();
+    /**
+     * @return true while the card animates out of the stack.
+     */
+    boolean isExiting() {
+        return isAnimationRunning;
     }
 
+    /**
+     * Ends a running exit right away, as if its animation had just ended, e.g. before the card is
+     * recycled by a full layout.
+     */
     @TargetApi(12)
-    private float getExitRotation(boolean isLeft) {
-        float rotation = baseRotationDegrees * 2f * (parentWidth - objectX) / parentWidth;
-        if (touchPosition == TOUCH_BELOW) {
-            rotation = -rotation;
+    void finishExit() {
+        if (!isAnimationRunning) {
+            return;
         }
-        if (isLeft) {
-            rotation = -rotation;
+        if (stackAnimator != null) {
+            stackAnimator.cancel(frame);
+        } else if (Build.VERSION.SDK_INT >= 12) {
+            frame.animate().setListener(null).cancel();
         }
-        return rotation;
+        onExitAnimationEnd();
+    }
+
+    @TargetApi(11)
+    private float getExitPoint(int exitXPoint) {
+        return physics.getExitPoint(trajectory, aPosX, aPosY, exitXPoint);
     }
 
     /**
-     * When the object rotates it's width becomes bigger.
-     * The maximum width is at 45 degrees.
-     * <p/>
-     * The below method calculates the width offset of the rotation.
+     * @return the scroll progress of the card where it currently is, from -1 to 1.
      */
     @TargetApi(11)
-    private float getRotationWidthOffset() {
-        return objectW / MAX_COS - objectW;
+    float getScrollProgress() {
+        return physics.getScrollProgressPercent(frame.getX());
+    }
+
+    /**
+     * @return the horizontal velocity, in pixels per second, the card was last released with.
+     * Zero if it was last moved through {@link #selectLeft()} or {@link #selectRight()}.
+     */
+    public float getReleaseVelocityX() {
+        return releaseVelocityX;
+    }
+
+    /**
+     * @param stackAnimator Moves the card on exits and snap-backs, or null for the platform
+     *                      animators.
+     */
+    void setStackAnimator(StackAnimator stackAnimator) {
+        this.stackAnimator = stackAnimator;
+    }
+
+    void setMetrics(SwipeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param recorder Receives every touch event of the card, or null to stop recording.
+     */
+    public void setGestureRecorder(GestureRecorder recorder) {
+        this.gestureRecorder = recorder;
     }
 
     @SuppressWarnings("UnusedDeclaration")
     public void setRotationDegrees(float degrees) {
-        this.baseRotationDegrees = degrees;
+        physics.setRotationDegrees(degrees);
+    }
+
+    /**
+     * @param velocity the minimum horizontal velocity in pixels per second, for a release to
+     *                 count as a swipe before the card crosses the border.
+     */
+    public void setMinFlingVelocity(float velocity) {
+        physics.setMinFlingVelocity(velocity);
+    }
+
+    /**
+     * @param distance the minimum horizontal distance in pixels the card has to be moved by,
+     *                 for a release to count as a fling.
+     */
+    public void setMinFlingDistance(float distance) {
+        physics.setMinFlingDistance(distance);
     }
 
     protected interface FlingListener {
@@ -383,5 +635,12 @@ public class FlingCardListener implements View.OnTouchListener {
 
         @TargetApi(11)
         public void onScroll(float scrollProgressPercent);
+
+        @TargetApi(11)
+        public void onScrollReleased(float scrollProgressPercent);
+
+        public void onMoveStarted();
+
+        public void onMoveFinished();
     }
 }
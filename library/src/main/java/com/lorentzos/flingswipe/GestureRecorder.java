@@ -0,0 +1,99 @@
+package com.lorentzos.flingswipe;
+
+import android.annotation.TargetApi;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Records the touch events of the top card into {@link GestureTrace}s, one per gesture. Attach it
+ * with {@link SwipeFlingAdapterView#setGestureRecorder(GestureRecorder)} or
+ * {@link FlingCardListener#setGestureRecorder(GestureRecorder)}.
+ * <p/>
+ * Events are encoded as they arrive into a buffer which is reused from one gesture to the next,
+ * so only the end of a gesture allocates, once the buffer has grown to the size of one.
+ */
+public class GestureRecorder {
+    private final Callback callback;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private boolean recording = false;
+    private long downTime;
+
+    /**
+     * @param callback Receives every gesture once it ends, on the main thread.
+     */
+    public GestureRecorder(Callback callback) {
+        this.callback = callback;
+    }
+
+    @TargetApi(11)
+    void record(View frame, MotionEvent event) {
+        final int action = event.getAction() & MotionEvent.ACTION_MASK;
+        try {
+            if (action == MotionEvent.ACTION_DOWN) {
+                start(frame, event);
+            } else if (!recording) {
+                // The gesture started before the recorder was attached.
+                return;
+            }
+            writeEvent(event);
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                recording = false;
+                callback.onGestureRecorded(new GestureTrace(bytes.toByteArray()));
+            }
+        } catch (IOException e) {
+            // Writing to memory does not fail, and the trace was just written.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TargetApi(11)
+    private void start(View frame, MotionEvent event) throws IOException {
+        bytes.reset();
+        recording = true;
+        downTime = event.getDownTime();
+
+        out.writeInt(GestureTrace.MAGIC);
+        out.writeByte(GestureTrace.VERSION);
+        out.writeFloat(frame.getX());
+        out.writeFloat(frame.getY());
+        out.writeInt(frame.getWidth());
+        out.writeInt(frame.getHeight());
+        out.writeInt(((ViewGroup) frame.getParent()).getWidth());
+        out.writeLong(downTime);
+    }
+
+    private void writeEvent(MotionEvent event) throws IOException {
+        final int pointerCount = event.getPointerCount();
+        out.writeShort(event.getAction());
+        out.writeInt((int) (event.getEventTime() - downTime));
+        out.writeByte(pointerCount);
+        for (int p = 0; p < pointerCount; p++) {
+            out.writeByte(event.getPointerId(p));
+            out.writeFloat(event.getX(p));
+            out.writeFloat(event.getY(p));
+        }
+
+        final int historySize = event.getHistorySize();
+        out.writeShort(historySize);
+        for (int h = 0; h < historySize; h++) {
+            out.writeInt((int) (event.getHistoricalEventTime(h) - downTime));
+            for (int p = 0; p < pointerCount; p++) {
+                out.writeFloat(event.getHistoricalX(p, h));
+                out.writeFloat(event.getHistoricalY(p, h));
+            }
+        }
+    }
+
+    public interface Callback {
+        /**
+         * A gesture ended with an up or cancel event.
+         */
+        public void onGestureRecorded(GestureTrace trace);
+    }
+}
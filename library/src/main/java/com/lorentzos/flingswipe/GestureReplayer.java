@@ -0,0 +1,434 @@
+package com.lorentzos.flingswipe;
+
+import android.annotation.TargetApi;
+import android.os.Debug;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * Plays {@link GestureTrace}s back through a {@link FlingCardListener} of its own, one event at a
+ * time, and reports what the listener decided along with the CPU time and the bytes allocated by
+ * every event. Meant for the JVM, e.g. under Robolectric, to check that recorded gestures still
+ * end the same way and did not get slower.
+ * <p/>
+ * On a device the measurements come from {@link Debug}. Its methods are native, and Robolectric
+ * turns them into no-ops, so on the JVM they come from the platform's
+ * <code>ThreadMXBean</code> instead.
+ * <p/>
+ * The card must be attached to its parent and laid out like the recorded one, see
+ * {@link GestureTrace#getCardWidth()} and friends. Requires API 14.
+ */
+public class GestureReplayer {
+    public static final int DECISION_NONE = 0;
+    public static final int DECISION_LEFT = 1;
+    public static final int DECISION_RIGHT = 2;
+    public static final int DECISION_SNAP_BACK = 3;
+    public static final int DECISION_CLICK = 4;
+
+    private final View frame;
+    private final Object dataObject;
+    private final FlingCardListener listener;
+    private final ThreadCounters counters;
+    private int decision;
+
+    private final GestureTrace.Event event = new GestureTrace.Event();
+    private MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+    private MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+
+    public GestureReplayer(View frame, Object dataObject) {
+        this(frame, dataObject, 15f);
+    }
+
+    /**
+     * @param frame           The card the gestures are played on.
+     * @param dataObject      The data object reported on a click.
+     * @param rotationDegrees The rotation of the card, as set on the stack.
+     */
+    public GestureReplayer(View frame, Object dataObject, float rotationDegrees) {
+        this.frame = frame;
+        this.dataObject = dataObject;
+        this.listener = new FlingCardListener(frame, dataObject, rotationDegrees,
+                new DecisionListener());
+        this.counters = "Dalvik".equals(System.getProperty("java.vm.name"))
+                ? new DebugCounters() : JvmCounters.create();
+    }
+
+    /**
+     * @return the listener the gestures go through, to set the same fling thresholds as the stack.
+     */
+    public FlingCardListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Puts the card back at rest and plays the trace on it.
+     *
+     * @throws IOException if the trace is malformed.
+     */
+    @TargetApi(14)
+    public Result replay(GestureTrace trace) throws IOException {
+        frame.animate().setListener(null).cancel();
+        frame.setTranslationX(0);
+        frame.setTranslationY(0);
+        frame.setRotation(0);
+        listener.rebind(frame, dataObject);
+        decision = DECISION_NONE;
+
+        final int eventCount = trace.getEventCount();
+        final Result result = new Result(eventCount);
+        final DataInputStream in = trace.openEvents();
+        counters.start();
+        try {
+            final long overhead = counters.measureOverhead();
+            for (int i = 0; i < eventCount; i++) {
+                GestureTrace.readEvent(in, event);
+                final MotionEvent motionEvent = obtain(trace.getDownTime());
+
+                final long cpuStart = counters.cpuTimeNanos();
+                final long allocatedStart = counters.allocatedBytes();
+                listener.handleTouch(motionEvent);
+                final long allocatedEnd = counters.allocatedBytes();
+                result.cpuTimeNanos[i] = counters.cpuTimeNanos() - cpuStart;
+                result.allocatedBytes[i] = overhead < 0 ? -1
+                        : Math.max(0, allocatedEnd - allocatedStart - overhead);
+
+                motionEvent.recycle();
+            }
+        } finally {
+            counters.stop();
+        }
+        result.decision = decision;
+        return result;
+    }
+
+    /**
+     * Builds the motion event of the current record, with its historical samples batched in
+     * front of it as the input system would.
+     */
+    @TargetApi(14)
+    private MotionEvent obtain(long downTime) {
+        final int pointerCount = event.pointerCount;
+        if (pointerCount == 1 && event.ids[0] == 0) {
+            return obtainSinglePointer(downTime);
+        }
+        ensurePointers(pointerCount);
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p].clear();
+            properties[p].id = event.ids[p];
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+        }
+
+        MotionEvent motionEvent = null;
+        for (int h = 0; h < event.historySize; h++) {
+            for (int p = 0; p < pointerCount; p++) {
+                coords[p].clear();
+                coords[p].x = event.historicalX[h * pointerCount + p];
+                coords[p].y = event.historicalY[h * pointerCount + p];
+                coords[p].pressure = 1f;
+                coords[p].size = 1f;
+            }
+            final long time = downTime + event.historicalTimes[h];
+            if (motionEvent == null) {
+                motionEvent = obtain(downTime, time, pointerCount);
+            } else {
+                motionEvent.addBatch(time, coords, 0);
+            }
+        }
+
+        for (int p = 0; p < pointerCount; p++) {
+            coords[p].clear();
+            coords[p].x = event.x[p];
+            coords[p].y = event.y[p];
+            coords[p].pressure = 1f;
+            coords[p].size = 1f;
+        }
+        final long time = downTime + event.time;
+        if (motionEvent == null) {
+            motionEvent = obtain(downTime, time, pointerCount);
+        } else {
+            motionEvent.addBatch(time, coords, 0);
+        }
+        return motionEvent;
+    }
+
+    /**
+     * Most gestures are a single finger. Those go through the simpler obtain() and addBatch(),
+     * which Robolectric implements, while it leaves the pointer based ones unimplemented.
+     */
+    private MotionEvent obtainSinglePointer(long downTime) {
+        MotionEvent motionEvent = null;
+        for (int h = 0; h < event.historySize; h++) {
+            final long time = downTime + event.historicalTimes[h];
+            final float x = event.historicalX[h];
+            final float y = event.historicalY[h];
+            if (motionEvent == null) {
+                motionEvent = MotionEvent.obtain(downTime, time, event.action, x, y, 0);
+            } else {
+                motionEvent.addBatch(time, x, y, 1f, 1f, 0);
+            }
+        }
+
+        final long time = downTime + event.time;
+        if (motionEvent == null) {
+            motionEvent = MotionEvent.obtain(downTime, time, event.action, event.x[0],
+                    event.y[0], 0);
+        } else {
+            motionEvent.addBatch(time, event.x[0], event.y[0], 1f, 1f, 0);
+        }
+        return motionEvent;
+    }
+
+    @TargetApi(14)
+    private MotionEvent obtain(long downTime, long eventTime, int pointerCount) {
+        return MotionEvent.obtain(downTime, eventTime, event.action, pointerCount, properties,
+                coords, 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+    }
+
+    @TargetApi(14)
+    private void ensurePointers(int count) {
+        if (properties.length < count) {
+            properties = new MotionEvent.PointerProperties[count];
+            coords = new MotionEvent.PointerCoords[count];
+            for (int p = 0; p < count; p++) {
+                properties[p] = new MotionEvent.PointerProperties();
+                coords[p] = new MotionEvent.PointerCoords();
+            }
+        }
+    }
+
+    /**
+     * Tells the decision from the release callbacks, which run as soon as the card is let go,
+     * without waiting for the exit animation.
+     */
+    private class DecisionListener implements FlingCardListener.FlingListener {
+        @Override
+        public void onCardExited() {
+        }
+
+        @Override
+        public void leftExit(Object dataObject) {
+        }
+
+        @Override
+        public void rightExit(Object dataObject) {
+        }
+
+        @Override
+        public void onClick(Object dataObject) {
+            decision = DECISION_CLICK;
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+        }
+
+        @Override
+        public void onScrollReleased(float scrollProgressPercent) {
+            if (scrollProgressPercent < 0) {
+                decision = DECISION_LEFT;
+            } else if (scrollProgressPercent > 0) {
+                decision = DECISION_RIGHT;
+            } else {
+                decision = DECISION_SNAP_BACK;
+            }
+        }
+
+        @Override
+        public void onMoveStarted() {
+        }
+
+        @Override
+        public void onMoveFinished() {
+        }
+    }
+
+    /**
+     * Reads the CPU time and the allocated bytes of the current thread.
+     */
+    private abstract static class ThreadCounters {
+        void start() {
+        }
+
+        void stop() {
+        }
+
+        abstract long cpuTimeNanos();
+
+        /**
+         * @return the bytes allocated by the thread so far, or -1 if they are not counted.
+         */
+        abstract long allocatedBytes();
+
+        /**
+         * @return what reading the allocated bytes around an event allocates by itself, the least
+         * of a few tries, or -1 if allocations are not counted.
+         */
+        long measureOverhead() {
+            long overhead = Long.MAX_VALUE;
+            // Enough rounds for the VM to settle on how it calls the counters.
+            for (int i = 0; i < 32; i++) {
+                cpuTimeNanos();
+                final long start = allocatedBytes();
+                final long end = allocatedBytes();
+                if (start < 0 || end < 0) {
+                    return -1;
+                }
+                overhead = Math.min(overhead, end - start);
+            }
+            return overhead;
+        }
+    }
+
+    private static final class DebugCounters extends ThreadCounters {
+        @Override
+        void start() {
+            Debug.startAllocCounting();
+        }
+
+        @Override
+        void stop() {
+            Debug.stopAllocCounting();
+        }
+
+        @Override
+        long cpuTimeNanos() {
+            return Debug.threadCpuTimeNanos();
+        }
+
+        @Override
+        long allocatedBytes() {
+            return Debug.getThreadAllocSize();
+        }
+    }
+
+    /**
+     * Goes through reflection, as <code>java.lang.management</code> is not part of Android. The
+     * boxing this costs is the same on every read, {@link #measureOverhead()} takes it out.
+     */
+    private static final class JvmCounters extends ThreadCounters {
+        private final Object threadBean;
+        private final Method currentThreadCpuTime;
+        private final Method threadAllocatedBytes;
+        private final Object[] threadId = new Object[1];
+
+        private JvmCounters(Object threadBean, Method currentThreadCpuTime,
+                            Method threadAllocatedBytes) {
+            this.threadBean = threadBean;
+            this.currentThreadCpuTime = currentThreadCpuTime;
+            this.threadAllocatedBytes = threadAllocatedBytes;
+        }
+
+        static ThreadCounters create() {
+            try {
+                final Object threadBean = Class.forName("java.lang.management.ManagementFactory")
+                        .getMethod("getThreadMXBean").invoke(null);
+                final Method currentThreadCpuTime = Class.forName(
+                        "java.lang.management.ThreadMXBean").getMethod("getCurrentThreadCpuTime");
+                Method threadAllocatedBytes = null;
+                try {
+                    final Class<?> allocationBean =
+                            Class.forName("com.sun.management.ThreadMXBean");
+                    if (allocationBean.isInstance(threadBean)) {
+                        threadAllocatedBytes =
+                                allocationBean.getMethod("getThreadAllocatedBytes", long.class);
+                    }
+                } catch (ClassNotFoundException e) {
+                    // Not a HotSpot based JVM, allocations are not counted.
+                }
+                return new JvmCounters(threadBean, currentThreadCpuTime, threadAllocatedBytes);
+            } catch (Exception e) {
+                throw new IllegalStateException("No thread counters on this VM", e);
+            }
+        }
+
+        @Override
+        long cpuTimeNanos() {
+            return (Long) invoke(currentThreadCpuTime, null);
+        }
+
+        @Override
+        long allocatedBytes() {
+            if (threadAllocatedBytes == null) {
+                return -1;
+            }
+            threadId[0] = Thread.currentThread().getId();
+            return (Long) invoke(threadAllocatedBytes, threadId);
+        }
+
+        private Object invoke(Method method, Object[] args) {
+            try {
+                return method.invoke(threadBean, args);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * The outcome of one replay.
+     */
+    public static final class Result {
+        private int decision;
+        private final long[] cpuTimeNanos;
+        private final long[] allocatedBytes;
+
+        private Result(int eventCount) {
+            cpuTimeNanos = new long[eventCount];
+            allocatedBytes = new long[eventCount];
+        }
+
+        /**
+         * @return one of the <code>DECISION_</code> constants. {@link #DECISION_NONE} if the
+         * trace did not end with an up event.
+         */
+        public int getDecision() {
+            return decision;
+        }
+
+        public int getEventCount() {
+            return cpuTimeNanos.length;
+        }
+
+        /**
+         * @return the thread CPU time spent on the event.
+         */
+        public long getCpuTimeNanos(int eventIndex) {
+            return cpuTimeNanos[eventIndex];
+        }
+
+        /**
+         * @return the bytes allocated on the thread while handling the event, or -1 if this VM
+         * does not count them.
+         */
+        public long getAllocatedBytes(int eventIndex) {
+            return allocatedBytes[eventIndex];
+        }
+
+        public long getTotalCpuTimeNanos() {
+            long total = 0;
+            for (long nanos : cpuTimeNanos) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        /**
+         * @return the bytes allocated by all the events, or -1 if this VM does not count them.
+         */
+        public long getTotalAllocatedBytes() {
+            long total = 0;
+            for (long bytes : allocatedBytes) {
+                if (bytes < 0) {
+                    return -1;
+                }
+                total += bytes;
+            }
+            return total;
+        }
+    }
+}
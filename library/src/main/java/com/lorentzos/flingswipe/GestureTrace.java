@@ -0,0 +1,215 @@
+package com.lorentzos.flingswipe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * One gesture on the top card, from the down to the up or cancel event, as recorded by a
+ * {@link GestureRecorder} and played back by a {@link GestureReplayer}.
+ * <p/>
+ * The binary format is big endian:
+ * <pre>
+ * int    magic, "FSGT"
+ * byte   version
+ * float  card x, float card y, int card width, int card height, int parent width
+ * long   down time
+ * then, until the end of the data, one record per event:
+ * short  action
+ * int    event time, relative to the down time
+ * byte   pointer count
+ *        per pointer: byte id, float x, float y
+ * short  history size
+ *        per historical sample: int time, relative to the down time,
+ *                               then per pointer: float x, float y
+ * </pre>
+ * Coordinates are relative to the card, as the card received them.
+ */
+public final class GestureTrace {
+    static final int MAGIC = 0x46534754;
+    static final int VERSION = 1;
+
+    private final byte[] data;
+    private final float cardX;
+    private final float cardY;
+    private final int cardWidth;
+    private final int cardHeight;
+    private final int parentWidth;
+    private final long downTime;
+    private final int eventCount;
+
+    GestureTrace(byte[] data) throws IOException {
+        this.data = data;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a gesture trace");
+        }
+        final int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported gesture trace version " + version);
+        }
+        cardX = in.readFloat();
+        cardY = in.readFloat();
+        cardWidth = in.readInt();
+        cardHeight = in.readInt();
+        parentWidth = in.readInt();
+        downTime = in.readLong();
+
+        // Walks the events once, so a truncated trace fails here rather than on replay.
+        Event event = new Event();
+        int count = 0;
+        while (in.available() > 0) {
+            readEvent(in, event);
+            count++;
+        }
+        eventCount = count;
+    }
+
+    /**
+     * Reads a trace written by {@link #writeTo(OutputStream)}. The stream is read to its end.
+     *
+     * @throws IOException if the stream fails or does not hold a valid trace.
+     */
+    public static GestureTrace read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return new GestureTrace(bytes.toByteArray());
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(data);
+    }
+
+    public byte[] toByteArray() {
+        return data.clone();
+    }
+
+    /**
+     * @return the x of the card when the gesture started.
+     */
+    public float getCardX() {
+        return cardX;
+    }
+
+    /**
+     * @return the y of the card when the gesture started.
+     */
+    public float getCardY() {
+        return cardY;
+    }
+
+    public int getCardWidth() {
+        return cardWidth;
+    }
+
+    public int getCardHeight() {
+        return cardHeight;
+    }
+
+    public int getParentWidth() {
+        return parentWidth;
+    }
+
+    /**
+     * @return the uptime in milliseconds of the down event.
+     */
+    public long getDownTime() {
+        return downTime;
+    }
+
+    /**
+     * @return the number of events, not counting the historical samples.
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return a stream positioned at the first event.
+     */
+    DataInputStream openEvents() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        // magic, version, card x, y, width, height, parent width and down time.
+        final int headerSize = 4 + 1 + 4 * 5 + 8;
+        if (in.skipBytes(headerSize) != headerSize) {
+            throw new EOFException();
+        }
+        return in;
+    }
+
+    /**
+     * Decodes the next event into the given holder, growing its arrays as needed.
+     */
+    static void readEvent(DataInputStream in, Event event) throws IOException {
+        event.action = in.readShort() & 0xffff;
+        event.time = in.readInt();
+        final int pointerCount = in.readByte();
+        if (pointerCount < 1) {
+            throw new IOException("Invalid pointer count " + pointerCount);
+        }
+        event.ensurePointers(pointerCount);
+        for (int p = 0; p < pointerCount; p++) {
+            event.ids[p] = in.readByte();
+            event.x[p] = in.readFloat();
+            event.y[p] = in.readFloat();
+        }
+
+        final int historySize = in.readShort();
+        if (historySize < 0) {
+            throw new IOException("Invalid history size " + historySize);
+        }
+        event.ensureHistory(historySize);
+        for (int h = 0; h < historySize; h++) {
+            event.historicalTimes[h] = in.readInt();
+            for (int p = 0; p < pointerCount; p++) {
+                event.historicalX[h * pointerCount + p] = in.readFloat();
+                event.historicalY[h * pointerCount + p] = in.readFloat();
+            }
+        }
+    }
+
+    /**
+     * A decoded event, reused from one event to the next.
+     */
+    static final class Event {
+        int action;
+        int time;
+        int pointerCount;
+        int[] ids = new int[2];
+        float[] x = new float[2];
+        float[] y = new float[2];
+        int historySize;
+        int[] historicalTimes = new int[8];
+        // Sample major: the pointers of the first sample, then those of the second and so on.
+        float[] historicalX = new float[16];
+        float[] historicalY = new float[16];
+
+        private void ensurePointers(int count) {
+            pointerCount = count;
+            if (ids.length < count) {
+                ids = new int[count];
+                x = new float[count];
+                y = new float[count];
+            }
+        }
+
+        private void ensureHistory(int size) {
+            historySize = size;
+            if (historicalTimes.length < size) {
+                historicalTimes = new int[size];
+            }
+            if (historicalX.length < size * pointerCount) {
+                historicalX = new float[size * pointerCount];
+                historicalY = new float[size * pointerCount];
+            }
+        }
+    }
+}
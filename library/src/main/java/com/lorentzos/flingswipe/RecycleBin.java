@@ -0,0 +1,69 @@
+package com.lorentzos.flingswipe;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.Adapter;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps the card views that left the stack so they can be handed back to the adapter as
+ * <code>convertView</code>. Scrap views are pooled per {@link Adapter#getItemViewType(int)}.
+ */
+class RecycleBin {
+    private final SparseArray<ArrayList<View>> scrapViews = new SparseArray<>();
+    private final int maxScrapPerType;
+
+    RecycleBin(int maxScrapPerType) {
+        this.maxScrapPerType = maxScrapPerType;
+    }
+
+    /**
+     * Adds a detached view to the pool of its view type. Views whose type is
+     * {@link Adapter#IGNORE_ITEM_VIEW_TYPE} or whose pool is already full are dropped.
+     */
+    void addScrapView(View scrap) {
+        int viewType = getViewType(scrap);
+        if (viewType == Adapter.IGNORE_ITEM_VIEW_TYPE) {
+            return;
+        }
+        ArrayList<View> scrapList = scrapViews.get(viewType);
+        if (scrapList == null) {
+            scrapList = new ArrayList<>(maxScrapPerType);
+            scrapViews.put(viewType, scrapList);
+        }
+        if (scrapList.size() < maxScrapPerType) {
+            scrapList.add(scrap);
+        }
+    }
+
+    /**
+     * @return a scrap view of the given type or <code>null</code> if there is none.
+     */
+    View getScrapView(int viewType) {
+        if (viewType == Adapter.IGNORE_ITEM_VIEW_TYPE) {
+            return null;
+        }
+        ArrayList<View> scrapList = scrapViews.get(viewType);
+        if (scrapList == null || scrapList.isEmpty()) {
+            return null;
+        }
+        return scrapList.remove(scrapList.size() - 1);
+    }
+
+    void clear() {
+        scrapViews.clear();
+    }
+
+    /**
+     * Remembers the view type a view was bound with, so it can be pooled correctly later.
+     */
+    static void setViewType(View view, int viewType) {
+        view.setTag(R.id.fling_card_view_type, viewType);
+    }
+
+    static int getViewType(View view) {
+        Object viewType = view.getTag(R.id.fling_card_view_type);
+        return viewType == null ? Adapter.IGNORE_ITEM_VIEW_TYPE : (Integer) viewType;
+    }
+}
@@ -0,0 +1,330 @@
+package com.lorentzos.flingswipe;
+
+import android.annotation.TargetApi;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Moves the cards of a stack with springs, all from a single frame callback. Each card gets a
+ * spring per property (x, y and rotation) which pulls it towards its target. A card can be
+ * retargeted while it moves, keeping its velocity, or stopped where it is.
+ * <p/>
+ * The rest of the per-frame work of the stack, e.g. the cards below following the top one, runs
+ * from the same callback through {@link FrameListener}s, once the cards moved.
+ * <p/>
+ * The per-card state is pooled, so animating does not allocate once the pool covers the cards
+ * which move at the same time.
+ */
+@TargetApi(16)
+class StackAnimator implements Choreographer.FrameCallback {
+    /**
+     * A soft spring which overshoots a little, for cards coming back to rest.
+     */
+    static final float SNAP_BACK_STIFFNESS = 900f;
+    static final float SNAP_BACK_DAMPING_RATIO = 0.6f;
+
+    private static final float MAX_STEP_SECONDS = 0.004f;
+    // Steps of a quarter of the spring's time constant keep stiff springs from ringing.
+    private static final float STEPS_PER_RADIAN = 4f;
+    private static final float MAX_FRAME_SECONDS = 1f / 30;
+    private static final float POSITION_THRESHOLD = 0.5f;
+    private static final float ROTATION_THRESHOLD = 0.1f;
+    private static final float VELOCITY_THRESHOLD = 10f;
+    private static final float ROTATION_VELOCITY_THRESHOLD = 2f;
+
+    private final ArrayList<Track> tracks = new ArrayList<>();
+    private final ArrayList<FrameListener> frameListeners = new ArrayList<>();
+    private boolean dispatchingFrame = false;
+    private boolean running = false;
+    private long lastFrameNanos;
+
+    /**
+     * Moves the card towards the given values, from wherever it is. A card which is already
+     * moving keeps its velocity and only changes its target, spring and end listener, and
+     * settles whenever the spring does until {@link #setDuration(View, long)} says otherwise.
+     *
+     * @param dampingRatio 1 to settle without overshooting, below 1 to bounce.
+     * @param endListener  Called once the card settles, may be null.
+     */
+    void animateTo(View card, float x, float y, float rotation, float stiffness,
+                   float dampingRatio, EndListener endListener) {
+        Track track = findTrack(card);
+        if (track == null) {
+            track = obtainTrack();
+            track.card = card;
+            track.x = card.getX();
+            track.y = card.getY();
+            track.rotation = card.getRotation();
+            track.velocityX = 0;
+            track.velocityY = 0;
+            track.velocityRotation = 0;
+        }
+        track.targetX = x;
+        track.targetY = y;
+        track.targetRotation = rotation;
+        track.stiffness = stiffness;
+        final float omega = (float) Math.sqrt(stiffness);
+        track.damping = 2f * dampingRatio * omega;
+        track.maxStep = Math.min(MAX_STEP_SECONDS, 1f / (STEPS_PER_RADIAN * omega));
+        track.remainingSeconds = Float.POSITIVE_INFINITY;
+        track.endListener = endListener;
+        start();
+    }
+
+    /**
+     * Sets the current velocity of a moving card, e.g. the one it was released with.
+     *
+     * @param velocityX In pixels per second.
+     * @param velocityY In pixels per second.
+     */
+    void setVelocity(View card, float velocityX, float velocityY) {
+        final Track track = findTrack(card);
+        if (track != null) {
+            track.velocityX = velocityX;
+            track.velocityY = velocityY;
+        }
+    }
+
+    /**
+     * Ends the animation of a moving card at its target after the given time at the latest,
+     * for springs which would otherwise creep towards it well after they look settled.
+     */
+    void setDuration(View card, long durationMillis) {
+        final Track track = findTrack(card);
+        if (track != null) {
+            track.remainingSeconds = durationMillis / 1000f;
+        }
+    }
+
+    /**
+     * Stops the card where it is, without calling its end listener.
+     */
+    void cancel(View card) {
+        final Track track = findTrack(card);
+        if (track != null) {
+            track.release();
+        }
+    }
+
+    /**
+     * Stops every card where it is and drops the frame listeners.
+     */
+    void cancelAll() {
+        for (int i = 0; i < tracks.size(); i++) {
+            tracks.get(i).release();
+        }
+        for (int i = 0; i < frameListeners.size(); i++) {
+            frameListeners.set(i, null);
+        }
+        if (!dispatchingFrame) {
+            frameListeners.clear();
+        }
+        if (running) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            running = false;
+        }
+    }
+
+    boolean isAnimating(View card) {
+        return findTrack(card) != null;
+    }
+
+    /**
+     * Calls the listener on every frame from the next one on, until it asks to stop or is
+     * removed. Does nothing if it is called already.
+     */
+    void addFrameListener(FrameListener listener) {
+        if (!frameListeners.contains(listener)) {
+            frameListeners.add(listener);
+        }
+        start();
+    }
+
+    void removeFrameListener(FrameListener listener) {
+        final int index = frameListeners.indexOf(listener);
+        if (index < 0) {
+            return;
+        }
+        if (dispatchingFrame) {
+            // Dropped once the frame is over.
+            frameListeners.set(index, null);
+        } else {
+            frameListeners.remove(index);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        running = false;
+        float frameSeconds = lastFrameNanos == 0
+                ? 1f / 60 : (frameTimeNanos - lastFrameNanos) / 1e9f;
+        frameSeconds = Math.max(0, frameSeconds);
+        // The springs skip no more than a frame at a time, a duration counts the time it took.
+        final float elapsed = Math.min(frameSeconds, MAX_FRAME_SECONDS);
+        lastFrameNanos = frameTimeNanos;
+
+        boolean active = false;
+        // End listeners may start or cancel animations, tracks are never removed from the list.
+        for (int i = 0; i < tracks.size(); i++) {
+            final Track track = tracks.get(i);
+            if (track.card == null) {
+                continue;
+            }
+            track.step(elapsed);
+            track.remainingSeconds -= frameSeconds;
+            final boolean settled = track.settle();
+            final View card = track.card;
+            card.setX(track.x);
+            card.setY(track.y);
+            card.setRotation(track.rotation);
+            if (settled) {
+                final EndListener endListener = track.endListener;
+                track.release();
+                if (endListener != null) {
+                    endListener.onAnimationEnd(card);
+                }
+            } else {
+                active = true;
+            }
+        }
+
+        // Listeners added on the way wait for the next frame.
+        dispatchingFrame = true;
+        final int listenerCount = frameListeners.size();
+        for (int i = 0; i < listenerCount; i++) {
+            final FrameListener listener = frameListeners.get(i);
+            if (listener != null && !listener.onFrame(frameTimeNanos)) {
+                frameListeners.set(i, null);
+            }
+        }
+        dispatchingFrame = false;
+        for (int i = frameListeners.size() - 1; i >= 0; i--) {
+            if (frameListeners.get(i) == null) {
+                frameListeners.remove(i);
+            }
+        }
+
+        if (active || !frameListeners.isEmpty()) {
+            start();
+        }
+        if (!running) {
+            // The next animation starts from a fresh frame time.
+            lastFrameNanos = 0;
+        }
+    }
+
+    private void start() {
+        if (!running) {
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private Track findTrack(View card) {
+        for (int i = 0; i < tracks.size(); i++) {
+            final Track track = tracks.get(i);
+            if (track.card == card) {
+                return track;
+            }
+        }
+        return null;
+    }
+
+    private Track obtainTrack() {
+        for (int i = 0; i < tracks.size(); i++) {
+            final Track track = tracks.get(i);
+            if (track.card == null) {
+                return track;
+            }
+        }
+        final Track track = new Track();
+        tracks.add(track);
+        return track;
+    }
+
+    interface FrameListener {
+        /**
+         * Called on a frame, after the cards moved.
+         *
+         * @return true to be called on the next frame as well.
+         */
+        public boolean onFrame(long frameTimeNanos);
+    }
+
+    interface EndListener {
+        /**
+         * The card reached its target.
+         */
+        public void onAnimationEnd(View card);
+    }
+
+    /**
+     * The springs of one card, free when it has no card.
+     */
+    private static final class Track {
+        View card;
+        EndListener endListener;
+        float stiffness;
+        float damping;
+        float x;
+        float y;
+        float rotation;
+        float targetX;
+        float targetY;
+        float targetRotation;
+        float velocityX;
+        float velocityY;
+        float velocityRotation;
+        float maxStep;
+        float remainingSeconds;
+
+        /**
+         * Semi-implicit Euler in steps short against the spring's period, which stays stable
+         * and close to the exact motion for stiff springs.
+         */
+        void step(float seconds) {
+            while (seconds > 0) {
+                final float dt = Math.min(seconds, maxStep);
+                velocityX += (-stiffness * (x - targetX) - damping * velocityX) * dt;
+                velocityY += (-stiffness * (y - targetY) - damping * velocityY) * dt;
+                velocityRotation += (-stiffness * (rotation - targetRotation)
+                        - damping * velocityRotation) * dt;
+                x += velocityX * dt;
+                y += velocityY * dt;
+                rotation += velocityRotation * dt;
+                seconds -= dt;
+            }
+        }
+
+        /**
+         * Snaps to the target once close enough and slow enough, or once out of time.
+         *
+         * @return true if the card settled.
+         */
+        boolean settle() {
+            if (remainingSeconds <= 0 || isAtRest()) {
+                x = targetX;
+                y = targetY;
+                rotation = targetRotation;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isAtRest() {
+            return Math.abs(x - targetX) < POSITION_THRESHOLD
+                    && Math.abs(y - targetY) < POSITION_THRESHOLD
+                    && Math.abs(rotation - targetRotation) < ROTATION_THRESHOLD
+                    && Math.abs(velocityX) < VELOCITY_THRESHOLD
+                    && Math.abs(velocityY) < VELOCITY_THRESHOLD
+                    && Math.abs(velocityRotation) < ROTATION_VELOCITY_THRESHOLD;
+        }
+
+        void release() {
+            card = null;
+            endListener = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.lorentzos.flingswipe;
+
+/**
+ * A card that left the stack, as delivered by a {@link SwipeDecisionPipeline}.
+ */
+public final class SwipeDecision {
+    private final Object dataObject;
+    private final boolean isLeft;
+    private final long timestamp;
+    private final float velocityX;
+
+    public SwipeDecision(Object dataObject, boolean isLeft, long timestamp, float velocityX) {
+        this.dataObject = dataObject;
+        this.isLeft = isLeft;
+        this.timestamp = timestamp;
+        this.velocityX = velocityX;
+    }
+
+    /**
+     * @return the data object of the card.
+     */
+    public Object getDataObject() {
+        return dataObject;
+    }
+
+    /**
+     * @return true for a left exit, false for a right one.
+     */
+    public boolean isLeft() {
+        return isLeft;
+    }
+
+    /**
+     * @return the wall clock time of the exit, in milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the horizontal velocity of the card when it was released, in pixels per second.
+     * Zero for cards that left through {@link FlingCardListener#selectLeft()} or
+     * {@link FlingCardListener#selectRight()}.
+     */
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    @Override
+    public String toString() {
+        return (isLeft ? "left " : "right ") + dataObject + " at " + timestamp;
+    }
+}
@@ -0,0 +1,177 @@
+package com.lorentzos.flingswipe;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Queues the swipe decisions of a {@link SwipeFlingAdapterView} and hands them to a
+ * {@link Consumer} on a background executor, in batches. A batch is delivered as soon as it is
+ * full or when its oldest decision has waited for the max delay, whichever comes first.
+ * <p/>
+ * Decisions are enqueued on the main thread, which never waits on the consumer nor runs it. When
+ * the queue is full the {@link BackpressurePolicy} decides which decision is lost, so the capacity
+ * should cover what piles up while the executor is at its slowest.
+ */
+public class SwipeDecisionPipeline {
+    private final Consumer consumer;
+    private final Executor executor;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final BackpressurePolicy policy;
+
+    private final ArrayBlockingQueue<SwipeDecision> queue;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    // Held on the executor while a batch is taken and delivered, so that batches never overlap or
+    // overtake. Never taken on the main thread.
+    private final Object deliveryLock = new Object();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private boolean timeoutPosted = false;
+    private int droppedCount = 0;
+
+    private final Runnable batchTimeout = new Runnable() {
+        @Override
+        public void run() {
+            timeoutPosted = false;
+            scheduleDrain();
+        }
+    };
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            while (true) {
+                if (!deliverBatch()) {
+                    drainScheduled.set(false);
+                    // A decision enqueued after the last batch may have found this drain still
+                    // scheduled, and not scheduled another one.
+                    if (queue.isEmpty() || !drainScheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * A pipeline which drops the oldest queued decision when full.
+     *
+     * @see #SwipeDecisionPipeline(Consumer, Executor, int, long, int, BackpressurePolicy)
+     */
+    public SwipeDecisionPipeline(Consumer consumer, Executor executor, int batchSize,
+                                 long maxDelayMillis) {
+        this(consumer, executor, batchSize, maxDelayMillis, batchSize * 8,
+                BackpressurePolicy.DROP_OLDEST);
+    }
+
+    /**
+     * @param consumer       Receives the batches, on the executor.
+     * @param executor       The background executor the consumer runs on.
+     * @param batchSize      The max number of decisions per batch.
+     * @param maxDelayMillis The max time a decision waits for its batch to fill up.
+     * @param capacity       The max number of decisions waiting to be delivered.
+     * @param policy         What to do with a decision when the queue is full.
+     */
+    public SwipeDecisionPipeline(Consumer consumer, Executor executor, int batchSize,
+                                 long maxDelayMillis, int capacity, BackpressurePolicy policy) {
+        if (batchSize < 1 || capacity < batchSize) {
+            throw new IllegalArgumentException("Batch size must be positive and not larger " +
+                    "than the capacity");
+        }
+        this.consumer = consumer;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.policy = policy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queue a decision. Must be called on the main thread.
+     */
+    public void enqueue(SwipeDecision decision) {
+        if (!queue.offer(decision)) {
+            droppedCount++;
+            switch (policy) {
+                case DROP_OLDEST:
+                    queue.poll();
+                    queue.offer(decision);
+                    break;
+                case DROP_NEWEST:
+                    break;
+            }
+        }
+
+        if (queue.size() >= batchSize) {
+            scheduleDrain();
+        } else if (!timeoutPosted) {
+            timeoutPosted = true;
+            handler.postDelayed(batchTimeout, maxDelayMillis);
+        }
+    }
+
+    /**
+     * Deliver every queued decision now, without waiting for the batches to fill up.
+     */
+    public void flush() {
+        scheduleDrain();
+    }
+
+    /**
+     * @return how many decisions were lost because the queue was full.
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    private void scheduleDrain() {
+        if (timeoutPosted) {
+            handler.removeCallbacks(batchTimeout);
+            timeoutPosted = false;
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(drainTask);
+        }
+    }
+
+    /**
+     * @return false if the queue was empty.
+     */
+    private boolean deliverBatch() {
+        synchronized (deliveryLock) {
+            List<SwipeDecision> batch = new ArrayList<>(batchSize);
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                return false;
+            }
+            consumer.onDecisions(batch);
+            return true;
+        }
+    }
+
+    /**
+     * What happens to a new decision when the queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Discard the oldest queued decision to make room.
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the new decision.
+         */
+        DROP_NEWEST
+    }
+
+    public interface Consumer {
+        /**
+         * Called on the executor with the decisions in the order they were made.
+         */
+        public void onDecisions(List<SwipeDecision> decisions);
+    }
+}
@@ -4,12 +4,22 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.Gravity;
 import android.view.View;
 import android.widget.Adapter;
 import android.widget.FrameLayout;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
 /**
  * Created by dionysis_lorentzos on 5/8/14
  * for package com.lorentzos.swipecards
@@ -17,17 +27,89 @@ import android.widget.FrameLayout;
  * Use with caution, dinosaurs might appear!
  */
 public class SwipeFlingAdapterView extends BaseFlingAdapterView {
+    private static final int HARDWARE_LAYERS_NONE = 0;
+    private static final int HARDWARE_LAYERS_TOP = 1;
+    private static final int HARDWARE_LAYERS_STACK = 2;
+
     private final int MAX_VISIBLE;
+    private final int MIN_ADAPTER_STACK;
     private final float ROTATION_DEGREES;
+    private final int PREFETCH_DEPTH;
+    private final float MIN_FLING_VELOCITY;
+    private final float MIN_FLING_DISTANCE;
+    private final int HARDWARE_LAYERS;
+    private final boolean COALESCE_SCROLL;
+    private final int FAST_FORWARD_THRESHOLD;
+    private final int UNDO_DEPTH;
+    private final int UNDO_TIMEOUT;
+    private final int DETAIL_DEPTH;
+    private final int PLACEHOLDER_BACKGROUND;
+    private final boolean SNAPSHOT_DRAG;
+    private final boolean STAGED_LAYOUT;
+    // Per-depth scale, vertical offset and alpha of the cards, null without depth transforms.
+    private final float[] DEPTH_SCALES;
+    private final float[] DEPTH_OFFSETS;
+    private final float[] DEPTH_ALPHAS;
 
     private Adapter adapter;
     private int lastObjectInStack = 0;
     private onFlingListener flingListener;
     private AdapterDataSetObserver dataSetObserver;
+    private CardStackAdapter.UpdateObserver updateObserver;
+    private CardStackAdapter.Update pendingUpdate;
     private boolean inLayout = false;
     private View activeCard = null;
     private OnItemClickListener onItemClickListener;
     private FlingCardListener flingCardListener;
+    private RecycleBin recycleBin;
+    private boolean topCardRemovalPending = false;
+    private int adapterCountAfterRemoval;
+    private boolean adapterLoadPending = false;
+    private int lastAdapterCount;
+    private CardPrefetcher prefetcher;
+    // Not private, the tests run its idle passes themselves.
+    StackBuilder stackBuilder;
+    private ScrollDispatcher scrollDispatcher;
+    private SwipeDecisionPipeline decisionPipeline;
+    private SwipeMetrics metrics;
+    private GestureRecorder gestureRecorder;
+    private OnPrefetchListener onPrefetchListener;
+    private int prefetchLookahead;
+    private int announcedPrefetchEnd = 0;
+    private CardBitmapCache bitmapCache;
+    private final ArrayDeque<Boolean> swipeQueue = new ArrayDeque<>();
+    private boolean swipeQueuePosted = false;
+    private boolean batchingSwipes = false;
+    private final ArrayDeque<ExitedCard> exitedCards = new ArrayDeque<>();
+    // The exited cards which are still in the adapter, on top of the visible ones.
+    private int stackOffset = 0;
+    private View exitingCard;
+    private boolean exitPublishPending = false;
+    private boolean undoTimeoutPosted = false;
+    private final ArrayList<View> placeholders = new ArrayList<>();
+    private Bitmap snapshot;
+    private Canvas snapshotCanvas;
+    private Paint snapshotPaint;
+    private View snapshotCard;
+    // Not private, the tests run its frames themselves.
+    StackAnimator stackAnimator;
+    private DepthTransformer depthTransformer;
+
+    private final Runnable swipeQueueRunnable = new Runnable() {
+        @Override
+        public void run() {
+            swipeQueuePosted = false;
+            runQueuedSwipes();
+        }
+    };
+
+    private final Runnable undoTimeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            undoTimeoutPosted = false;
+            publishExpiredExits();
+        }
+    };
 
     public SwipeFlingAdapterView(Context context) {
         this(context, null);
@@ -43,8 +125,63 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SwipeFlingAdapterView,
                 defStyle, 0);
         MAX_VISIBLE = a.getInt(R.styleable.SwipeFlingAdapterView_max_visible, 4);
+        MIN_ADAPTER_STACK = a.getInt(R.styleable.SwipeFlingAdapterView_min_adapter_stack,
+                MAX_VISIBLE);
         ROTATION_DEGREES = a.getFloat(R.styleable.SwipeFlingAdapterView_rotation_degrees, 15f);
+        PREFETCH_DEPTH = a.getInt(R.styleable.SwipeFlingAdapterView_prefetch_depth, 0);
+        // Negative values keep the defaults of FlingCardListener.
+        MIN_FLING_VELOCITY = a.getDimension(
+                R.styleable.SwipeFlingAdapterView_min_fling_velocity, -1);
+        MIN_FLING_DISTANCE = a.getDimension(
+                R.styleable.SwipeFlingAdapterView_min_fling_distance, -1);
+        HARDWARE_LAYERS = a.getInt(R.styleable.SwipeFlingAdapterView_hardware_layers,
+                HARDWARE_LAYERS_NONE);
+        COALESCE_SCROLL = a.getBoolean(R.styleable.SwipeFlingAdapterView_coalesce_scroll, false);
+        FAST_FORWARD_THRESHOLD = a.getInt(
+                R.styleable.SwipeFlingAdapterView_fast_forward_threshold, 4);
+        UNDO_DEPTH = a.getInt(R.styleable.SwipeFlingAdapterView_undo_depth, 0);
+        UNDO_TIMEOUT = a.getInt(R.styleable.SwipeFlingAdapterView_undo_timeout, 0);
+        DETAIL_DEPTH = a.getInt(R.styleable.SwipeFlingAdapterView_detail_depth, 0);
+        PLACEHOLDER_BACKGROUND = a.getResourceId(
+                R.styleable.SwipeFlingAdapterView_placeholder_background, 0);
+        SNAPSHOT_DRAG = a.getBoolean(R.styleable.SwipeFlingAdapterView_snapshot_drag, false);
+        STAGED_LAYOUT = a.getBoolean(R.styleable.SwipeFlingAdapterView_staged_layout, false);
+        final float depthScaleStep = a.getFloat(
+                R.styleable.SwipeFlingAdapterView_depth_scale_step, 0);
+        final float depthOffsetStep = a.getDimension(
+                R.styleable.SwipeFlingAdapterView_depth_offset_step, 0);
+        final float depthAlphaStep = a.getFloat(
+                R.styleable.SwipeFlingAdapterView_depth_alpha_step, 0);
         a.recycle();
+
+        if (depthScaleStep != 0 || depthOffsetStep != 0 || depthAlphaStep != 0) {
+            DEPTH_SCALES = new float[MAX_VISIBLE];
+            DEPTH_OFFSETS = new float[MAX_VISIBLE];
+            DEPTH_ALPHAS = new float[MAX_VISIBLE];
+            for (int depth = 0; depth < MAX_VISIBLE; depth++) {
+                DEPTH_SCALES[depth] = Math.max(0, 1 - depth * depthScaleStep);
+                DEPTH_OFFSETS[depth] = depth * depthOffsetStep;
+                DEPTH_ALPHAS[depth] = Math.max(0, Math.min(1, 1 - depth * depthAlphaStep));
+            }
+        } else {
+            DEPTH_SCALES = null;
+            DEPTH_OFFSETS = null;
+            DEPTH_ALPHAS = null;
+        }
+
+        // One spare view per type covers the card that just left the stack.
+        recycleBin = new RecycleBin(MAX_VISIBLE + PREFETCH_DEPTH + 1);
+        prefetcher = new CardPrefetcher();
+        stackBuilder = new StackBuilder();
+        if (COALESCE_SCROLL && Build.VERSION.SDK_INT >= 16) {
+            scrollDispatcher = new ScrollDispatcher();
+        }
+        if (Build.VERSION.SDK_INT >= 16) {
+            stackAnimator = new StackAnimator();
+            if (DEPTH_SCALES != null) {
+                depthTransformer = new DepthTransformer();
+            }
+        }
     }
 
     /**
@@ -87,45 +224,517 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
         if (adapter == null) {
             return;
         }
+        if (flingCardListener != null && flingCardListener.isExiting()) {
+            // Recycling the card would cancel its animation and lose the swipe.
+            flingCardListener.finishExit();
+        }
 
+        final long layoutStart = metrics != null ? System.nanoTime() : 0;
         inLayout = true;
+        topCardRemovalPending = false;
+        exitPublishPending = false;
+        pendingUpdate = null;
         final int adapterCount = adapter.getCount();
+        // Only an empty stack is built in stages, a full one is replaced at once.
+        final boolean staged = STAGED_LAYOUT && getChildCount() == 0
+                && adapterCount > stackOffset + 1 && MAX_VISIBLE > 1;
+        stackBuilder.cancel();
 
-        removeAllViewsInLayout();
-        if (adapterCount > 0) {
-            layoutChildren(adapterCount);
+        recycleAllViews();
+        prefetcher.recycleAll();
+        if (adapterCount > stackOffset) {
+            if (staged) {
+                layoutChildren(stackOffset, stackOffset + 1);
+                lastObjectInStack = stackOffset;
+            } else {
+                layoutChildren(stackOffset, adapterCount);
+            }
+            setTopView();
+            applyDepthTransforms(0);
+        }
+        inLayout = false;
+        prefetcher.schedule();
+        if (metrics != null) {
+            metrics.onStackLayout(layoutStart, false);
+        }
+        if (staged) {
+            stackBuilder.start(layoutStart);
+        }
+
+        announceUpcomingItems(adapterCount);
+        requestMoreItemsIfNeeded(adapterCount);
+        scheduleQueuedSwipes();
+    }
+
+    /**
+     * Calls {@link onFlingListener#onAdapterAboutToEmpty(int)} once the adapter drops below
+     * <code>min_adapter_stack</code> items. No further calls are made until the adapter grows,
+     * i.e. the requested items arrived, or {@link #clearPendingAdapterLoad()} is called.
+     */
+    private void requestMoreItemsIfNeeded(int adapterCount) {
+        // Exited cards waiting for their undo window to close do not count.
+        final int remaining = adapterCount - stackOffset;
+        if (adapterLoadPending && remaining > lastAdapterCount) {
+            adapterLoadPending = false;
+        }
+        lastAdapterCount = remaining;
+
+        if (!adapterLoadPending && remaining < MIN_ADAPTER_STACK) {
+            adapterLoadPending = true;
+            flingListener.onAdapterAboutToEmpty(remaining);
+        }
+    }
+
+    /**
+     * Calls the {@link OnPrefetchListener} for the items which enter the lookahead window below
+     * the stack. Every position is announced once, the window only moves as cards exit, and
+     * starts over when the data set changes in a way which is not applied in place.
+     */
+    private void announceUpcomingItems(int adapterCount) {
+        if (onPrefetchListener == null) {
+            return;
+        }
+        final int stackEnd = Math.min(adapterCount, stackOffset + MAX_VISIBLE);
+        final int end = Math.min(adapterCount, stackEnd + prefetchLookahead);
+        final boolean stableIds = adapter.hasStableIds();
+        for (int i = Math.max(announcedPrefetchEnd, stackEnd); i < end; i++) {
+            onPrefetchListener.onPrefetch(i, adapter.getItem(i),
+                    stableIds ? adapter.getItemId(i) : INVALID_ROW_ID);
+        }
+        announcedPrefetchEnd = Math.max(announcedPrefetchEnd, end);
+    }
+
+    /**
+     * Let {@link onFlingListener#onAdapterAboutToEmpty(int)} be called again on the next layout,
+     * e.g. when loading more items failed and should be retried.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void clearPendingAdapterLoad() {
+        adapterLoadPending = false;
+    }
+
+    /**
+     * The first item of the adapter is about to be removed.
+     */
+    private void onFirstItemExiting() {
+        if (bitmapCache != null && adapter.hasStableIds()) {
+            bitmapCache.remove(adapter.getItemId(0));
+        }
+        // Positions move up by one once the first item is removed.
+        if (announcedPrefetchEnd > 0) {
+            announcedPrefetchEnd--;
+        }
+    }
+
+    /**
+     * Detach the card that just left the stack. If the adapter then reports exactly one item
+     * less, {@link #applyTopCardRemoval()} completes the update without a full layout pass.
+     */
+    private void removeTopCard() {
+        if (activeCard == null) {
+            return;
+        }
+        resetCardState(activeCard);
+        recycleBin.addScrapView(activeCard);
+        removeViewInLayout(activeCard);
+        invalidate();
+        activeCard = null;
+
+        topCardRemovalPending = true;
+        adapterCountAfterRemoval = adapter.getCount() - 1;
+    }
+
+    /**
+     * The remaining cards already sit one position higher in the adapter than they did, so only
+     * the new bottom card has to be bound.
+     *
+     * @return false if the data changed in some other way and a full layout is needed.
+     */
+    private boolean applyTopCardRemoval() {
+        if (!topCardRemovalPending) {
+            return false;
+        }
+        topCardRemovalPending = false;
+
+        final int adapterCount = adapter.getCount();
+        if (adapterCount != adapterCountAfterRemoval) {
+            return false;
+        }
+
+        final int nextPosition = lastObjectInStack;
+        lastObjectInStack--;
+        prefetcher.onFirstItemRemoved();
+        fillStack(nextPosition, adapterCount);
+        return true;
+    }
+
+    /**
+     * Bind the cards from the given position to the bottom of the stack, without a full layout
+     * pass.
+     */
+    private void fillStack(int startingIndex, int adapterCount) {
+        final long layoutStart = metrics != null ? System.nanoTime() : 0;
+        inLayout = true;
+        layoutChildren(startingIndex, adapterCount);
+        final boolean promoted = promotePlaceholders();
+        setTopView();
+        applyDepthTransforms(0);
+        inLayout = false;
+        if (!promoted) {
+            requestLayout();
+        }
+        prefetcher.schedule();
+        if (metrics != null) {
+            metrics.onStackLayout(layoutStart, true);
+        }
+
+        announceUpcomingItems(adapterCount);
+        requestMoreItemsIfNeeded(adapterCount);
+        scheduleQueuedSwipes();
+    }
+
+    /**
+     * Apply the diff of a list submitted to a {@link CardStackAdapter} in place: the cards which
+     * stayed where they were keep their views, the changed ones are bound again and new cards
+     * fill up the bottom of the stack.
+     *
+     * @return false if a card moved within the stack and a full layout is needed.
+     */
+    private boolean applyStackUpdate() {
+        final CardStackAdapter.Update update = pendingUpdate;
+        if (update == null) {
+            return false;
+        }
+        pendingUpdate = null;
+        if (topCardRemovalPending || exitPublishPending) {
+            return false;
+        }
+
+        final int childCount = getChildCount();
+        final int stackEnd = stackOffset + childCount;
+        if (childCount > 0 && lastObjectInStack != stackEnd - 1) {
+            // A hidden card shifts the positions of the ones below it.
+            return false;
+        }
+        for (int position = 0; position < stackEnd; position++) {
+            if (!update.isKept(position)) {
+                return false;
+            }
+        }
+
+        final long layoutStart = metrics != null ? System.nanoTime() : 0;
+        final int adapterCount = adapter.getCount();
+        inLayout = true;
+        boolean topChanged = false;
+        for (int depth = 0; depth < childCount; depth++) {
+            final int position = stackOffset + depth;
+            final int index = childCount - 1 - depth;
+            final View card = getChildAt(index);
+            if (!update.isChanged(position) || card instanceof PlaceholderCard) {
+                continue;
+            }
+            if (depth == 0) {
+                if (flingCardListener != null && flingCardListener.isExiting()) {
+                    // It is leaving anyway.
+                    continue;
+                }
+                topChanged = true;
+            }
+            resetCardState(card);
+            removeViewInLayout(card);
+            recycleBin.addScrapView(card);
+            final View newCard = obtainView(position);
+            if (newCard.getVisibility() == GONE) {
+                recycleBin.addScrapView(newCard);
+                inLayout = false;
+                return false;
+            }
+            makeAndAddView(newCard, index);
+        }
+        prefetcher.onItemsUpdated(update.firstDifference);
+        announcedPrefetchEnd = Math.min(announcedPrefetchEnd, update.firstDifference);
+
+        layoutChildren(stackEnd, adapterCount);
+        if (!promotePlaceholders()) {
+            inLayout = false;
+            return false;
+        }
+        if (topChanged || childCount == 0) {
             setTopView();
         }
+        applyDepthTransforms(childCount > 0 && !topChanged && flingCardListener != null
+                ? flingCardListener.getScrollProgress() : 0);
         inLayout = false;
+        invalidate();
+        prefetcher.schedule();
+        if (metrics != null) {
+            metrics.onStackLayout(layoutStart, true);
+        }
+
+        announceUpcomingItems(adapterCount);
+        requestMoreItemsIfNeeded(adapterCount);
+        scheduleQueuedSwipes();
+        return true;
+    }
+
+    /**
+     * Detach the card that just left the stack but keep it bound, so that {@link #undo()} can
+     * bring it back. Its item stays in the adapter until the exit is published, hence the stack
+     * now starts one position further.
+     */
+    private void retainTopCard() {
+        if (activeCard == null) {
+            return;
+        }
+        activeCard.setOnTouchListener(null);
+        restoreLayerType(activeCard);
+        removeViewInLayout(activeCard);
+        invalidate();
+        exitingCard = activeCard;
+        activeCard = null;
+
+        stackOffset++;
+        fillStack(lastObjectInStack + 1, adapter.getCount());
+    }
+
+    /**
+     * Keep the exit undoable, publishing the oldest ones beyond <code>undo_depth</code>. Nothing
+     * is recorded if no card was retained, the card which exited was not the top one then.
+     */
+    private void retainExit(Object dataObject, boolean isLeft, float velocityX) {
+        if (exitingCard == null) {
+            return;
+        }
+        exitedCards.add(new ExitedCard(dataObject, isLeft, velocityX, exitingCard,
+                SystemClock.uptimeMillis()));
+        exitingCard = null;
+        while (exitedCards.size() > UNDO_DEPTH) {
+            publishOldestExit();
+        }
+        scheduleUndoTimeout();
+    }
+
+    /**
+     * Close the undo window of the oldest exit: recycle its card, remove its item from the
+     * adapter and tell the listeners. The visible cards keep their bindings, they just move one
+     * position up in the adapter.
+     */
+    private void publishOldestExit() {
+        final ExitedCard exited = exitedCards.poll();
+        resetCardState(exited.card);
+        recycleBin.addScrapView(exited.card);
+        onFirstItemExiting();
+        stackOffset--;
+        lastObjectInStack--;
+        prefetcher.onFirstItemRemoved();
+
+        exitPublishPending = true;
+        adapterCountAfterRemoval = adapter.getCount() - 1;
+        flingListener.removeFirstObjectInAdapter();
+        if (exited.isLeft) {
+            flingListener.onLeftCardExit(exited.dataObject);
+        } else {
+            flingListener.onRightCardExit(exited.dataObject);
+        }
+        enqueueDecision(exited.dataObject, exited.isLeft, exited.velocityX);
+    }
+
+    /**
+     * @return false if the data changed in some other way than the published removal and a full
+     * layout is needed.
+     */
+    private boolean applyPublishedExit() {
+        if (!exitPublishPending) {
+            return false;
+        }
+        exitPublishPending = false;
+
+        final int adapterCount = adapter.getCount();
+        if (adapterCount != adapterCountAfterRemoval) {
+            return false;
+        }
+        announceUpcomingItems(adapterCount);
+        requestMoreItemsIfNeeded(adapterCount);
+        return true;
+    }
+
+    private void publishExpiredExits() {
+        final long now = SystemClock.uptimeMillis();
+        while (!exitedCards.isEmpty() && now - exitedCards.peek().exitTime >= UNDO_TIMEOUT) {
+            publishOldestExit();
+        }
+        scheduleUndoTimeout();
+    }
 
-        if (adapterCount < MAX_VISIBLE) {
-            flingListener.onAdapterAboutToEmpty(adapterCount);
+    private void scheduleUndoTimeout() {
+        if (UNDO_TIMEOUT > 0 && !undoTimeoutPosted && !exitedCards.isEmpty()) {
+            undoTimeoutPosted = true;
+            postDelayed(undoTimeoutRunnable,
+                    exitedCards.peek().exitTime + UNDO_TIMEOUT - SystemClock.uptimeMillis());
         }
     }
 
-    private void layoutChildren(int adapterCount) {
-        for (int i = 0; i < Math.min(adapterCount, MAX_VISIBLE); i++) {
-            View newUnderChild = adapter.getView(i, null, this);
+    private void layoutChildren(int startingIndex, int adapterCount) {
+        final int end = Math.min(adapterCount, stackOffset + MAX_VISIBLE);
+        for (int i = startingIndex; i < end; i++) {
+            View newUnderChild = prefetcher.take(i);
+            if (newUnderChild == null && DETAIL_DEPTH > 0 && i - stackOffset >= DETAIL_DEPTH
+                    && getChildCount() > 0) {
+                newUnderChild = obtainPlaceholder(getChildAt(getChildCount() - 1));
+            }
+            if (newUnderChild == null) {
+                newUnderChild = obtainView(i);
+            }
             if (newUnderChild.getVisibility() != GONE) {
-                makeAndAddView(newUnderChild);
+                makeAndAddView(newUnderChild, 0);
                 lastObjectInStack = i;
+            } else {
+                recycleBin.addScrapView(newUnderChild);
+            }
+        }
+    }
+
+    /**
+     * A bare view standing in for a card below <code>detail_depth</code>, sized and placed like
+     * the given card.
+     */
+    private View obtainPlaceholder(View card) {
+        final View placeholder;
+        if (placeholders.isEmpty()) {
+            placeholder = new PlaceholderCard(getContext());
+            if (PLACEHOLDER_BACKGROUND != 0) {
+                placeholder.setBackgroundResource(PLACEHOLDER_BACKGROUND);
+            }
+        } else {
+            placeholder = placeholders.remove(placeholders.size() - 1);
+        }
+
+        final FrameLayout.LayoutParams cardLp = (FrameLayout.LayoutParams) card.getLayoutParams();
+        FrameLayout.LayoutParams lp = (FrameLayout.LayoutParams) placeholder.getLayoutParams();
+        if (lp == null) {
+            lp = new FrameLayout.LayoutParams(0, 0);
+        }
+        lp.width = card.getMeasuredWidth();
+        lp.height = card.getMeasuredHeight();
+        lp.gravity = cardLp.gravity;
+        lp.leftMargin = cardLp.leftMargin;
+        lp.topMargin = cardLp.topMargin;
+        lp.rightMargin = cardLp.rightMargin;
+        lp.bottomMargin = cardLp.bottomMargin;
+        placeholder.setLayoutParams(lp);
+        return placeholder;
+    }
+
+    /**
+     * Bind the cards which moved above <code>detail_depth</code> in place of their placeholders.
+     * The position of a card follows from its depth only while no card of the stack is hidden.
+     *
+     * @return false if a hidden card shifts the positions and a full layout is needed.
+     */
+    private boolean promotePlaceholders() {
+        if (DETAIL_DEPTH <= 0) {
+            return true;
+        }
+        for (int depth = 0; depth < DETAIL_DEPTH && depth < getChildCount(); depth++) {
+            final int index = getChildCount() - 1 - depth;
+            final View child = getChildAt(index);
+            if (!(child instanceof PlaceholderCard)) {
+                continue;
+            }
+            if (lastObjectInStack != stackOffset + getChildCount() - 1) {
+                return false;
+            }
+            final View card = obtainView(stackOffset + depth);
+            if (card.getVisibility() == GONE) {
+                recycleBin.addScrapView(card);
+                return false;
+            }
+            removeViewInLayout(child);
+            placeholders.add(child);
+            makeAndAddView(card, index);
+        }
+        return true;
+    }
+
+    /**
+     * Pool a card which left the stack, placeholders apart from the adapter's views.
+     */
+    private void scrapCard(View card) {
+        if (card instanceof PlaceholderCard) {
+            placeholders.add(card);
+        } else {
+            recycleBin.addScrapView(card);
+        }
+    }
+
+    /**
+     * Get a view for the given position, passing a recycled view of the same type as
+     * convertView when there is one.
+     */
+    private View obtainView(int position) {
+        final int viewType = adapter.getItemViewType(position);
+        final View scrapView = recycleBin.getScrapView(viewType);
+        final long start = metrics != null ? System.nanoTime() : 0;
+        final View child = adapter.getView(position, scrapView, this);
+        if (metrics != null) {
+            metrics.onGetView(position, start, scrapView != null && child == scrapView);
+        }
+        if (scrapView != null && child != scrapView) {
+            // The adapter did not reuse it, keep it for the next one.
+            recycleBin.addScrapView(scrapView);
+        }
+        RecycleBin.setViewType(child, viewType);
+        return child;
+    }
+
+    /**
+     * Remove all the cards from the stack and move them to the recycle bin.
+     */
+    private void recycleAllViews() {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            resetCardState(child);
+            scrapCard(child);
+        }
+        removeAllViewsInLayout();
+    }
+
+    /**
+     * Undo everything the fling listener did to a card, so that it can be bound again.
+     */
+    @TargetApi(12)
+    private void resetCardState(View child) {
+        if (child == snapshotCard) {
+            snapshotCard = null;
+        }
+        child.setOnTouchListener(null);
+        restoreLayerType(child);
+        if (stackAnimator != null) {
+            stackAnimator.cancel(child);
+        }
+        if (Build.VERSION.SDK_INT >= 12) {
+            child.animate().setListener(null).cancel();
+        }
+        if (Build.VERSION.SDK_INT >= 11) {
+            child.setTranslationX(0);
+            child.setTranslationY(0);
+            child.setRotation(0);
+            if (DEPTH_SCALES != null) {
+                child.setScaleX(1);
+                child.setScaleY(1);
+                child.setAlpha(1);
             }
         }
     }
 
-    private void makeAndAddView(View child) {
+    private void makeAndAddView(View child, int index) {
+        final long start = metrics != null ? System.nanoTime() : 0;
         FrameLayout.LayoutParams lp = (FrameLayout.LayoutParams) child.getLayoutParams();
-        addViewInLayout(child, 0, lp, true);
+        addViewInLayout(child, index, lp, true);
 
         final boolean needToMeasure = child.isLayoutRequested();
         if (needToMeasure) {
-            int childWidthSpec = getChildMeasureSpec(getWidthMeasureSpec(),
-                    getPaddingLeft() + getPaddingRight() + lp.leftMargin + lp.rightMargin,
-                    lp.width);
-            int childHeightSpec = getChildMeasureSpec(getHeightMeasureSpec(),
-                    getPaddingTop() + getPaddingBottom() + lp.topMargin + lp.bottomMargin,
-                    lp.height);
-            child.measure(childWidthSpec, childHeightSpec);
+            measureCard(child, lp);
         } else {
             cleanupLayoutState(child);
         }
@@ -171,6 +780,19 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
         }
 
         child.layout(childLeft, childTop, childLeft + w, childTop + h);
+        if (metrics != null) {
+            metrics.onMakeAndAddView(start);
+        }
+    }
+
+    private void measureCard(View child, FrameLayout.LayoutParams lp) {
+        int childWidthSpec = getChildMeasureSpec(getWidthMeasureSpec(),
+                getPaddingLeft() + getPaddingRight() + lp.leftMargin + lp.rightMargin,
+                lp.width);
+        int childHeightSpec = getChildMeasureSpec(getHeightMeasureSpec(),
+                getPaddingTop() + getPaddingBottom() + lp.topMargin + lp.bottomMargin,
+                lp.height);
+        child.measure(childWidthSpec, childHeightSpec);
     }
 
     /**
@@ -179,43 +801,135 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
     private void setTopView() {
         if (getChildCount() > 0) {
 
-            activeCard = getChildAt(lastObjectInStack);
+            activeCard = getChildAt(getChildCount() - 1);
             if (activeCard != null) {
 
-                flingCardListener = new FlingCardListener(activeCard, adapter.getItem(0),
-                        ROTATION_DEGREES, new FlingCardListener.FlingListener() {
-
-                    @Override
-                    public void onCardExited() {
-                        activeCard = null;
-                        flingListener.removeFirstObjectInAdapter();
+                if (flingCardListener == null) {
+                    flingCardListener = new FlingCardListener(activeCard,
+                            adapter.getItem(stackOffset), ROTATION_DEGREES,
+                            new TopCardFlingListener());
+                    flingCardListener.setMetrics(metrics);
+                    flingCardListener.setGestureRecorder(gestureRecorder);
+                    flingCardListener.setStackAnimator(stackAnimator);
+                    if (MIN_FLING_VELOCITY >= 0) {
+                        flingCardListener.setMinFlingVelocity(MIN_FLING_VELOCITY);
                     }
-
-                    @Override
-                    public void leftExit(Object dataObject) {
-                        flingListener.onLeftCardExit(dataObject);
+                    if (MIN_FLING_DISTANCE >= 0) {
+                        flingCardListener.setMinFlingDistance(MIN_FLING_DISTANCE);
                     }
+                } else {
+                    flingCardListener.rebind(activeCard, adapter.getItem(stackOffset));
+                }
+                activeCard.setOnTouchListener(flingCardListener);
+            }
+        }
+    }
 
-                    @Override
-                    public void rightExit(Object dataObject) {
-                        flingListener.onRightCardExit(dataObject);
-                    }
+    /**
+     * Moves the cards below the top one between their own depth and the one above, as far as
+     * the top card is on its way out. They have reached the next depth by the time it exits, so
+     * the layout which follows does not move them. The top card is left to its listener.
+     *
+     * @param scrollProgress The scroll progress of the top card, from -1 to 1.
+     */
+    @TargetApi(11)
+    private void applyDepthTransforms(float scrollProgress) {
+        if (DEPTH_SCALES == null || Build.VERSION.SDK_INT < 11) {
+            return;
+        }
+        final float progress = Math.min(1f, Math.abs(scrollProgress));
+        final int childCount = getChildCount();
+        for (int depth = 1; depth < childCount; depth++) {
+            final View card = getChildAt(childCount - 1 - depth);
+            final int from = Math.min(depth, MAX_VISIBLE - 1);
+            final int to = from - 1;
+            final float scale = DEPTH_SCALES[from]
+                    + (DEPTH_SCALES[to] - DEPTH_SCALES[from]) * progress;
+            card.setScaleX(scale);
+            card.setScaleY(scale);
+            card.setTranslationY(DEPTH_OFFSETS[from]
+                    + (DEPTH_OFFSETS[to] - DEPTH_OFFSETS[from]) * progress);
+            card.setAlpha(DEPTH_ALPHAS[from] + (DEPTH_ALPHAS[to] - DEPTH_ALPHAS[from]) * progress);
+        }
+    }
 
-                    @Override
-                    public void onClick(Object dataObject) {
-                        if (onItemClickListener != null) {
-                            onItemClickListener.onItemClicked(0, dataObject);
-                        }
-                    }
+    /**
+     * Render a moving card from a hardware layer, remembering its own layer type.
+     */
+    @TargetApi(11)
+    private void enableHardwareLayer(View card) {
+        if (Build.VERSION.SDK_INT >= 11 && card != null
+                && card.getTag(R.id.fling_card_layer_type) == null) {
+            card.setTag(R.id.fling_card_layer_type, card.getLayerType());
+            card.setLayerType(LAYER_TYPE_HARDWARE, null);
+        }
+    }
 
-                    @Override
-                    public void onScroll(float scrollProgressPercent) {
-                        flingListener.onScroll(scrollProgressPercent);
-                    }
-                });
+    @TargetApi(11)
+    private void restoreLayerType(View card) {
+        Object layerType = card.getTag(R.id.fling_card_layer_type);
+        if (Build.VERSION.SDK_INT >= 11 && layerType != null) {
+            card.setLayerType((Integer) layerType, null);
+            card.setTag(R.id.fling_card_layer_type, null);
+        }
+    }
 
-                activeCard.setOnTouchListener(flingCardListener);
+    /**
+     * Draw the top card once into a bitmap, which stands in for it until it is at rest again.
+     */
+    private void captureSnapshot(View card) {
+        final int width = card.getWidth();
+        final int height = card.getHeight();
+        if (width == 0 || height == 0) {
+            return;
+        }
+        if (snapshot == null || snapshot.getWidth() != width || snapshot.getHeight() != height) {
+            snapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            if (snapshotCanvas == null) {
+                snapshotCanvas = new Canvas();
+                snapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
             }
+            snapshotCanvas.setBitmap(snapshot);
+        } else {
+            snapshot.eraseColor(0);
+        }
+        card.draw(snapshotCanvas);
+        snapshotCard = card;
+        invalidate();
+    }
+
+    private void releaseSnapshot() {
+        if (snapshotCard != null) {
+            snapshotCard = null;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (child == snapshotCard && Build.VERSION.SDK_INT >= 11) {
+            drawSnapshot(canvas, child);
+            return false;
+        }
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * Draws the snapshot where the card would be, with the card's translation and rotation.
+     */
+    @TargetApi(16)
+    private void drawSnapshot(Canvas canvas, View card) {
+        final int saveCount = canvas.save();
+        canvas.translate(card.getLeft(), card.getTop());
+        canvas.concat(card.getMatrix());
+        canvas.drawBitmap(snapshot, 0, 0, snapshotPaint);
+        canvas.restoreToCount(saveCount);
+
+        // The card moves without drawing, so nothing else tells the stack to draw again.
+        if (Build.VERSION.SDK_INT >= 16) {
+            postInvalidateOnAnimation();
+        } else {
+            invalidate();
         }
     }
 
@@ -237,13 +951,35 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
             this.adapter.unregisterDataSetObserver(dataSetObserver);
             dataSetObserver = null;
         }
+        if (this.adapter instanceof CardStackAdapter) {
+            ((CardStackAdapter) this.adapter).setUpdateObserver(null);
+        }
+        pendingUpdate = null;
 
+        if (this.adapter != null) {
+            commitExits();
+        }
+        prefetcher.clear();
+        adapterLoadPending = false;
+        announcedPrefetchEnd = 0;
         this.adapter = adapter;
+        recycleBin.clear();
 
         if (this.adapter != null && dataSetObserver == null) {
             dataSetObserver = new AdapterDataSetObserver();
             this.adapter.registerDataSetObserver(dataSetObserver);
         }
+        if (this.adapter instanceof CardStackAdapter) {
+            if (updateObserver == null) {
+                updateObserver = new CardStackAdapter.UpdateObserver() {
+                    @Override
+                    public void onUpdate(CardStackAdapter.Update update) {
+                        pendingUpdate = update;
+                    }
+                };
+            }
+            ((CardStackAdapter) this.adapter).setUpdateObserver(updateObserver);
+        }
     }
 
     public void setFlingListener(onFlingListener onFlingListener) {
@@ -254,6 +990,307 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
         this.onItemClickListener = onItemClickListener;
     }
 
+    /**
+     * Optionally measure the layout passes, the adapter and the gestures of the stack. Nothing is
+     * measured while no listener is set.
+     *
+     * @param metricsListener The listener, or null to stop measuring.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void setMetricsListener(SwipeMetricsListener metricsListener) {
+        if (metrics != null) {
+            metrics.onGestureFinished();
+        }
+        metrics = metricsListener != null ? new SwipeMetrics(metricsListener, stackAnimator) : null;
+        if (flingCardListener != null) {
+            flingCardListener.setMetrics(metrics);
+        }
+    }
+
+    /**
+     * Bring back the card which exited last, animating it from where it left to the top of the
+     * stack. Its view is reused as it was, the adapter is not involved. Requires
+     * <code>undo_depth</code> to be set, exits are then only published to the
+     * {@link onFlingListener} once they can no longer be undone.
+     *
+     * @return the data object of the card, or null if there is nothing to undo.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    @TargetApi(11)
+    public Object undo() {
+        if (exitedCards.isEmpty() || adapter == null
+                || (flingCardListener != null && flingCardListener.isExiting())) {
+            return null;
+        }
+        final ExitedCard exited = exitedCards.pollLast();
+        stackOffset--;
+
+        inLayout = true;
+        if (getChildCount() == 0) {
+            lastObjectInStack = stackOffset;
+        } else if (getChildCount() >= MAX_VISIBLE) {
+            final View bottomCard = getChildAt(0);
+            resetCardState(bottomCard);
+            scrapCard(bottomCard);
+            removeViewInLayout(bottomCard);
+            lastObjectInStack--;
+        }
+        if (activeCard != null) {
+            // It may be half dragged.
+            resetCardState(activeCard);
+        }
+
+        // The listener reads the geometry of the card at rest.
+        final View card = exited.card;
+        float translationX = 0;
+        float translationY = 0;
+        float rotation = 0;
+        if (Build.VERSION.SDK_INT >= 11) {
+            translationX = card.getTranslationX();
+            translationY = card.getTranslationY();
+            rotation = card.getRotation();
+            card.setTranslationX(0);
+            card.setTranslationY(0);
+            card.setRotation(0);
+        }
+        addViewInLayout(card, -1, card.getLayoutParams(), true);
+        setTopView();
+        applyDepthTransforms(0);
+        inLayout = false;
+
+        if (Build.VERSION.SDK_INT >= 11) {
+            card.setTranslationX(translationX);
+            card.setTranslationY(translationY);
+            card.setRotation(rotation);
+            flingCardListener.rewind();
+        }
+        invalidate();
+        return exited.dataObject;
+    }
+
+    /**
+     * @return the number of exits which can still be undone.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public int getUndoableCount() {
+        return exitedCards.size();
+    }
+
+    /**
+     * Close the undo window of every exit, publishing them to the {@link onFlingListener}.
+     */
+    public void commitExits() {
+        while (!exitedCards.isEmpty()) {
+            publishOldestExit();
+        }
+        removeCallbacks(undoTimeoutRunnable);
+        undoTimeoutPosted = false;
+    }
+
+    /**
+     * Swipe the top card to the left, after every swipe queued before. Unlike
+     * {@link FlingCardListener#selectLeft()} this is never dropped while a card is leaving.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void swipeLeft() {
+        swipeQueue.add(Boolean.TRUE);
+        scheduleQueuedSwipes();
+    }
+
+    /**
+     * Swipe the top card to the right, after every swipe queued before. Unlike
+     * {@link FlingCardListener#selectRight()} this is never dropped while a card is leaving.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void swipeRight() {
+        swipeQueue.add(Boolean.FALSE);
+        scheduleQueuedSwipes();
+    }
+
+    /**
+     * @return the number of queued swipes which have not started yet.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public int getPendingSwipeCount() {
+        return swipeQueue.size();
+    }
+
+    /**
+     * Drop the queued swipes which have not started yet.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void clearPendingSwipes() {
+        swipeQueue.clear();
+    }
+
+    private void scheduleQueuedSwipes() {
+        if (!swipeQueue.isEmpty() && !swipeQueuePosted) {
+            swipeQueuePosted = true;
+            post(swipeQueueRunnable);
+        }
+    }
+
+    /**
+     * Starts the next queued swipe once the top card is at rest and not held, else the next exit,
+     * release, end of a move or layout picks the queue up again. The more swipes are waiting,
+     * the shorter the animation. Beyond <code>fast_forward_threshold</code> they are all applied
+     * at once.
+     */
+    private void runQueuedSwipes() {
+        if (swipeQueue.isEmpty() || adapter == null || activeCard == null
+                || flingCardListener == null || flingCardListener.isExiting()
+                || flingCardListener.isHeldOrMoving()) {
+            return;
+        }
+        final int backlog = swipeQueue.size();
+        if (backlog > FAST_FORWARD_THRESHOLD) {
+            applyQueuedSwipes();
+        } else {
+            final long duration = Math.max(SwipePhysics.MIN_EXIT_DURATION,
+                    FlingCardListener.DEFAULT_SELECT_DURATION / backlog);
+            flingCardListener.select(swipeQueue.poll(), duration);
+        }
+    }
+
+    /**
+     * Applies every queued swipe without animating, reporting the exits as usual, and lays out
+     * the stack once for all of them instead of once per card.
+     */
+    private void applyQueuedSwipes() {
+        commitExits();
+        topCardRemovalPending = false;
+        exitPublishPending = false;
+        batchingSwipes = true;
+        try {
+            int adapterCount = adapter.getCount();
+            while (!swipeQueue.isEmpty() && adapterCount > 0) {
+                final boolean isLeft = swipeQueue.poll();
+                final Object dataObject = adapter.getItem(0);
+                onFirstItemExiting();
+                flingListener.removeFirstObjectInAdapter();
+                if (isLeft) {
+                    flingListener.onLeftCardExit(dataObject);
+                } else {
+                    flingListener.onRightCardExit(dataObject);
+                }
+                enqueueDecision(dataObject, isLeft, 0);
+                adapterCount--;
+            }
+        } finally {
+            batchingSwipes = false;
+        }
+        requestLayout();
+    }
+
+    private void enqueueDecision(Object dataObject, boolean isLeft, float velocityX) {
+        if (decisionPipeline != null) {
+            decisionPipeline.enqueue(new SwipeDecision(dataObject, isLeft,
+                    System.currentTimeMillis(), velocityX));
+        }
+    }
+
+    /**
+     * Get told about the items which will enter the stack within the next swipes, e.g. to start
+     * decoding their images in the background into {@link #getBitmapCache()}.
+     *
+     * @param lookahead The number of items below the visible stack to announce.
+     * @param listener  The listener, or null to stop announcing.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void setOnPrefetchListener(int lookahead, OnPrefetchListener listener) {
+        onPrefetchListener = listener;
+        prefetchLookahead = lookahead;
+        announcedPrefetchEnd = 0;
+        if (adapter != null && !inLayout) {
+            announceUpcomingItems(adapter.getCount());
+        }
+    }
+
+    /**
+     * The images of the cards, keyed by {@link Adapter#getItemId(int)}, which needs an adapter
+     * with stable ids, e.g. a {@link CardStackAdapter} made with stable ids. The image of a card
+     * is evicted when it exits. Holds up to an eighth of the max heap unless resized.
+     */
+    public CardBitmapCache getBitmapCache() {
+        if (bitmapCache == null) {
+            final long maxSize = Runtime.getRuntime().maxMemory() / 8;
+            bitmapCache = new CardBitmapCache((int) Math.min(maxSize, Integer.MAX_VALUE));
+        }
+        return bitmapCache;
+    }
+
+    /**
+     * Optionally record the gestures on the top card, to replay them later with a
+     * {@link GestureReplayer}.
+     *
+     * @param recorder The recorder, or null to stop recording.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void setGestureRecorder(GestureRecorder recorder) {
+        gestureRecorder = recorder;
+        if (flingCardListener != null) {
+            flingCardListener.setGestureRecorder(recorder);
+        }
+    }
+
+    /**
+     * @return the number of cards for which the adapter did not reuse a recycled view, since the
+     * metrics listener was set.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public int getInflatedCardCount() {
+        return metrics != null ? metrics.getInflatedCount() : 0;
+    }
+
+    /**
+     * @return the number of cards bound to a recycled view, since the metrics listener was set.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public int getRecycledCardCount() {
+        return metrics != null ? metrics.getRecycledCount() : 0;
+    }
+
+    /**
+     * Optionally deliver every exit to a {@link SwipeDecisionPipeline} as well, which batches
+     * them to a background executor. The {@link onFlingListener} exit callbacks are still called.
+     * The decisions still waiting for their batch are flushed when the pipeline is replaced and
+     * when the view is detached from its window.
+     *
+     * @param decisionPipeline The pipeline, or null to stop using one.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void setSwipeDecisionPipeline(SwipeDecisionPipeline decisionPipeline) {
+        if (this.decisionPipeline != null && this.decisionPipeline != decisionPipeline) {
+            this.decisionPipeline.flush();
+        }
+        this.decisionPipeline = decisionPipeline;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        prefetcher.cancel();
+        stackBuilder.cancel();
+        if (scrollDispatcher != null) {
+            scrollDispatcher.cancel();
+        }
+        if (depthTransformer != null) {
+            depthTransformer.stop();
+        }
+        removeCallbacks(swipeQueueRunnable);
+        swipeQueuePosted = false;
+        if (adapter != null) {
+            commitExits();
+        }
+        if (decisionPipeline != null) {
+            // The exits just committed included, nothing waits for a timeout of a gone view.
+            decisionPipeline.flush();
+        }
+        snapshotCard = null;
+        snapshot = null;
+        snapshotCanvas = null;
+    }
+
     @Override
     public LayoutParams generateLayoutParams(AttributeSet attrs) {
         return new FrameLayout.LayoutParams(getContext(), attrs);
@@ -262,19 +1299,434 @@ public class SwipeFlingAdapterView extends BaseFlingAdapterView {
     private class AdapterDataSetObserver extends DataSetObserver {
         @Override
         public void onChanged() {
-            requestLayout();
+            if (batchingSwipes) {
+                // A single layout follows the batch.
+                pendingUpdate = null;
+                return;
+            }
+            if (pendingUpdate != null) {
+                if (!applyStackUpdate()) {
+                    invalidateStack();
+                }
+            } else if (!applyPublishedExit() && !applyTopCardRemoval()) {
+                invalidateStack();
+            }
         }
 
         @Override
         public void onInvalidated() {
+            if (batchingSwipes) {
+                return;
+            }
+            topCardRemovalPending = false;
+            exitPublishPending = false;
+            pendingUpdate = null;
+            invalidateStack();
+        }
+
+        /**
+         * The items may have moved anywhere, lay out the stack and announce the upcoming items
+         * again.
+         */
+        private void invalidateStack() {
+            announcedPrefetchEnd = 0;
             requestLayout();
         }
     }
 
+    /**
+     * Forwards the events of the top card. A single instance lives as long as the view.
+     */
+    private class TopCardFlingListener implements FlingCardListener.FlingListener {
+        @Override
+        public void onCardExited() {
+            if (UNDO_DEPTH > 0) {
+                retainTopCard();
+                return;
+            }
+            onFirstItemExiting();
+            removeTopCard();
+            flingListener.removeFirstObjectInAdapter();
+        }
+
+        @Override
+        public void leftExit(Object dataObject) {
+            if (UNDO_DEPTH > 0) {
+                retainExit(dataObject, true, flingCardListener.getReleaseVelocityX());
+            } else {
+                flingListener.onLeftCardExit(dataObject);
+                enqueueDecision(dataObject, true, flingCardListener.getReleaseVelocityX());
+            }
+            scheduleQueuedSwipes();
+        }
+
+        @Override
+        public void rightExit(Object dataObject) {
+            if (UNDO_DEPTH > 0) {
+                retainExit(dataObject, false, flingCardListener.getReleaseVelocityX());
+            } else {
+                flingListener.onRightCardExit(dataObject);
+                enqueueDecision(dataObject, false, flingCardListener.getReleaseVelocityX());
+            }
+            scheduleQueuedSwipes();
+        }
+
+        @Override
+        public void onClick(Object dataObject) {
+            if (onItemClickListener != null) {
+                onItemClickListener.onItemClicked(stackOffset, dataObject);
+            }
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+            if (depthTransformer == null) {
+                applyDepthTransforms(scrollProgressPercent);
+            }
+            if (scrollDispatcher != null) {
+                scrollDispatcher.post(scrollProgressPercent);
+            } else {
+                flingListener.onScroll(scrollProgressPercent);
+            }
+        }
+
+        @Override
+        public void onScrollReleased(float scrollProgressPercent) {
+            if (depthTransformer == null) {
+                applyDepthTransforms(scrollProgressPercent);
+            }
+            if (scrollDispatcher != null) {
+                scrollDispatcher.cancel();
+            }
+            flingListener.onScroll(scrollProgressPercent);
+            // A card let go without being dragged is at rest already.
+            scheduleQueuedSwipes();
+        }
+
+        @Override
+        public void onMoveStarted() {
+            if (metrics != null) {
+                metrics.onGestureStarted();
+            }
+            if (SNAPSHOT_DRAG && activeCard != null) {
+                captureSnapshot(activeCard);
+            }
+            if (depthTransformer != null) {
+                depthTransformer.start();
+            }
+            if (HARDWARE_LAYERS == HARDWARE_LAYERS_STACK) {
+                for (int i = 0; i < getChildCount(); i++) {
+                    enableHardwareLayer(getChildAt(i));
+                }
+            } else if (HARDWARE_LAYERS == HARDWARE_LAYERS_TOP) {
+                enableHardwareLayer(activeCard);
+            }
+        }
+
+        @Override
+        public void onMoveFinished() {
+            if (metrics != null) {
+                metrics.onGestureFinished();
+            }
+            releaseSnapshot();
+            if (depthTransformer != null) {
+                depthTransformer.stop();
+            }
+            if (HARDWARE_LAYERS != HARDWARE_LAYERS_NONE) {
+                for (int i = 0; i < getChildCount(); i++) {
+                    restoreLayerType(getChildAt(i));
+                }
+            }
+            scheduleQueuedSwipes();
+        }
+    }
+
+    /**
+     * Builds the cards right below the visible stack while the main thread is idle, so that a card
+     * entering the stack only needs to be attached. Prefetched cards are already measured and laid
+     * out, hence they are thrown away on every full layout pass.
+     */
+    private class CardPrefetcher implements MessageQueue.IdleHandler {
+        private final ArrayList<View> cards = new ArrayList<>();
+        private int firstPosition = 0;
+        private boolean scheduled = false;
+
+        void schedule() {
+            if (!scheduled && PREFETCH_DEPTH > 0 && hasWork()) {
+                Looper.myQueue().addIdleHandler(this);
+                scheduled = true;
+            }
+        }
+
+        void cancel() {
+            if (scheduled) {
+                Looper.myQueue().removeIdleHandler(this);
+                scheduled = false;
+            }
+        }
+
+        @Override
+        public boolean queueIdle() {
+            if (adapter != null && hasWork()) {
+                // One card per idle pass, so that a pending frame is never held back for long.
+                final int position = firstPosition + cards.size();
+                final View card = obtainView(position);
+                final FrameLayout.LayoutParams lp =
+                        (FrameLayout.LayoutParams) card.getLayoutParams();
+                measureCard(card, lp);
+                card.layout(0, 0, card.getMeasuredWidth(), card.getMeasuredHeight());
+                cards.add(card);
+            }
+            scheduled = hasWork();
+            return scheduled;
+        }
+
+        private boolean hasWork() {
+            if (adapter == null || cards.size() >= PREFETCH_DEPTH) {
+                return false;
+            }
+            if (firstPosition != lastObjectInStack + 1) {
+                // The stack no longer ends right above the prefetched cards.
+                recycleAll();
+                firstPosition = lastObjectInStack + 1;
+            }
+            return firstPosition + cards.size() < adapter.getCount();
+        }
+
+        /**
+         * @return the prefetched card for this position or <code>null</code>.
+         */
+        View take(int position) {
+            if (cards.isEmpty() || position != firstPosition) {
+                return null;
+            }
+            firstPosition++;
+            return cards.remove(0);
+        }
+
+        /**
+         * The adapter dropped its first item, so every prefetched card moved one position up.
+         */
+        void onFirstItemRemoved() {
+            firstPosition--;
+        }
+
+        /**
+         * The cards from this position on were replaced or changed, drop the prefetched ones
+         * among them.
+         */
+        void onItemsUpdated(int firstDifference) {
+            if (firstPosition + cards.size() > firstDifference) {
+                recycleAll();
+            }
+        }
+
+        /**
+         * The data changed in an unknown way, keep the views but not their bindings.
+         */
+        void recycleAll() {
+            for (int i = 0; i < cards.size(); i++) {
+                recycleBin.addScrapView(cards.get(i));
+            }
+            cards.clear();
+            firstPosition = 0;
+        }
+
+        void clear() {
+            cancel();
+            cards.clear();
+            firstPosition = 0;
+        }
+    }
+
+    /**
+     * Builds the cards below the top one after a staged layout, one per idle pass, so that the top
+     * card is drawn and can be dragged before the rest of the stack exists. Exits and adapter
+     * changes fill up the stack on their own, the builder then finds nothing left to do.
+     */
+    class StackBuilder implements MessageQueue.IdleHandler {
+        private boolean scheduled = false;
+        private boolean measuring = false;
+        private long startNanos;
+        private long firstCardNanos;
+
+        void start(long layoutStart) {
+            measuring = metrics != null;
+            if (measuring) {
+                startNanos = layoutStart;
+                firstCardNanos = System.nanoTime() - layoutStart;
+            }
+            if (!scheduled && hasWork()) {
+                Looper.myQueue().addIdleHandler(this);
+                scheduled = true;
+            } else {
+                finish();
+            }
+        }
+
+        void cancel() {
+            if (scheduled) {
+                Looper.myQueue().removeIdleHandler(this);
+                scheduled = false;
+            }
+            measuring = false;
+        }
+
+        @Override
+        public boolean queueIdle() {
+            if (hasWork()) {
+                final int position = lastObjectInStack + 1;
+                inLayout = true;
+                layoutChildren(position, position + 1);
+                // Even if the card is hidden, its position is done.
+                lastObjectInStack = position;
+                if (activeCard == null) {
+                    setTopView();
+                }
+                applyDepthTransforms(activeCard != null && flingCardListener != null
+                        ? flingCardListener.getScrollProgress() : 0);
+                inLayout = false;
+                invalidate();
+            }
+            scheduled = hasWork();
+            if (!scheduled) {
+                finish();
+            }
+            return scheduled;
+        }
+
+        private boolean hasWork() {
+            if (adapter == null || getChildCount() >= MAX_VISIBLE) {
+                return false;
+            }
+            return lastObjectInStack + 1 < Math.min(adapter.getCount(), stackOffset + MAX_VISIBLE);
+        }
+
+        private void finish() {
+            if (measuring && metrics != null) {
+                metrics.onStagedLayout(startNanos, firstCardNanos, getChildCount());
+            }
+            measuring = false;
+        }
+    }
+
+    /**
+     * Delivers at most one {@link onFlingListener#onScroll(float)} per frame, with the latest
+     * progress, on the frame of the {@link StackAnimator}. The value on release bypasses it, so
+     * the final state is never lost.
+     */
+    @TargetApi(16)
+    private class ScrollDispatcher implements StackAnimator.FrameListener {
+        private float pendingProgress;
+        private boolean posted = false;
+
+        void post(float scrollProgressPercent) {
+            pendingProgress = scrollProgressPercent;
+            if (!posted) {
+                stackAnimator.addFrameListener(this);
+                posted = true;
+            }
+        }
+
+        void cancel() {
+            if (posted) {
+                stackAnimator.removeFrameListener(this);
+                posted = false;
+            }
+        }
+
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            posted = false;
+            flingListener.onScroll(pendingProgress);
+            // Posted again from the listener.
+            return posted;
+        }
+    }
+
+    /**
+     * Stands in for the cards below <code>detail_depth</code>.
+     */
+    private static class PlaceholderCard extends View {
+        PlaceholderCard(Context context) {
+            super(context);
+        }
+    }
+
+    /**
+     * A card which left the stack but can still be brought back.
+     */
+    private static final class ExitedCard {
+        final Object dataObject;
+        final boolean isLeft;
+        final float velocityX;
+        final View card;
+        final long exitTime;
+
+        ExitedCard(Object dataObject, boolean isLeft, float velocityX, View card, long exitTime) {
+            this.dataObject = dataObject;
+            this.isLeft = isLeft;
+            this.velocityX = velocityX;
+            this.card = card;
+            this.exitTime = exitTime;
+        }
+    }
+
+    /**
+     * Updates the depth transforms once per frame while the top card moves, following it through
+     * the drag, the exit and the snap-back alike. Runs on the frame of the {@link StackAnimator},
+     * right after the springs moved the top card.
+     */
+    @TargetApi(16)
+    private class DepthTransformer implements StackAnimator.FrameListener {
+        private boolean running = false;
+
+        void start() {
+            if (!running) {
+                running = true;
+                stackAnimator.addFrameListener(this);
+            }
+        }
+
+        void stop() {
+            if (running) {
+                running = false;
+                stackAnimator.removeFrameListener(this);
+                update();
+            }
+        }
+
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            update();
+            return true;
+        }
+
+        private void update() {
+            if (flingCardListener != null) {
+                applyDepthTransforms(flingCardListener.getScrollProgress());
+            }
+        }
+    }
+
     public interface OnItemClickListener {
         public void onItemClicked(int itemPosition, Object dataObject);
     }
 
+    public interface OnPrefetchListener {
+        /**
+         * The item will enter the stack within the next swipes. Called on the main thread, once
+         * per item.
+         *
+         * @param position The current adapter position of the item.
+         * @param item     The item.
+         * @param itemId   The id of the item, as the bitmap cache is keyed, or
+         *                 {@link android.widget.AdapterView#INVALID_ROW_ID} if the adapter has no
+         *                 stable ids.
+         */
+        public void onPrefetch(int position, Object item, long itemId);
+    }
+
     public interface onFlingListener {
         public void removeFirstObjectInAdapter();
 
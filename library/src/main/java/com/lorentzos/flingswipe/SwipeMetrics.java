@@ -0,0 +1,135 @@
+package com.lorentzos.flingswipe;
+
+import android.annotation.TargetApi;
+import android.view.MotionEvent;
+
+/**
+ * Collects the measurements reported to a {@link SwipeMetricsListener} and counts the inflated
+ * and recycled cards. Only exists while a listener is set, callers check for <code>null</code>
+ * before reading the clock.
+ */
+class SwipeMetrics {
+    private final SwipeMetricsListener listener;
+    private final FrameMonitor frameMonitor;
+    private int inflatedCount = 0;
+    private int recycledCount = 0;
+
+    /**
+     * @param stackAnimator The animator whose frames are counted, null below API 16.
+     */
+    SwipeMetrics(SwipeMetricsListener listener, StackAnimator stackAnimator) {
+        this.listener = listener;
+        this.frameMonitor = stackAnimator != null ? new FrameMonitor(stackAnimator) : null;
+    }
+
+    void onStackLayout(long startNanos, boolean incremental) {
+        listener.onStackLayout(System.nanoTime() - startNanos, incremental);
+    }
+
+    void onStagedLayout(long startNanos, long firstCardNanos, int cardCount) {
+        listener.onStagedLayout(firstCardNanos, System.nanoTime() - startNanos, cardCount);
+    }
+
+    void onGetView(int position, long startNanos, boolean recycled) {
+        if (recycled) {
+            recycledCount++;
+        } else {
+            inflatedCount++;
+        }
+        listener.onGetView(position, System.nanoTime() - startNanos, recycled);
+    }
+
+    void onMakeAndAddView(long startNanos) {
+        listener.onMakeAndAddView(System.nanoTime() - startNanos);
+    }
+
+    void onTouchHandled(MotionEvent event, long startNanos) {
+        listener.onTouchHandled(event.getAction() & MotionEvent.ACTION_MASK,
+                System.nanoTime() - startNanos);
+        if (frameMonitor != null) {
+            // Event times are in the uptime base, as are frame times.
+            frameMonitor.lastTouchNanos = event.getEventTime() * 1000000L;
+        }
+    }
+
+    void onExitAnimation(long durationMillis) {
+        listener.onExitAnimation(durationMillis);
+    }
+
+    void onGestureStarted() {
+        if (frameMonitor != null) {
+            frameMonitor.start();
+        }
+    }
+
+    void onGestureFinished() {
+        if (frameMonitor != null) {
+            frameMonitor.stop();
+        }
+    }
+
+    int getInflatedCount() {
+        return inflatedCount;
+    }
+
+    int getRecycledCount() {
+        return recycledCount;
+    }
+
+    /**
+     * Counts the frames, and the ones skipped, while a gesture is running. As displays refresh
+     * at 60, 90, 120Hz or even change rates, the frame interval is the shortest one seen between
+     * two frames of the gesture so far.
+     */
+    @TargetApi(16)
+    private class FrameMonitor implements StackAnimator.FrameListener {
+        private final StackAnimator stackAnimator;
+        private boolean running = false;
+        private long lastFrameNanos;
+        private long frameIntervalNanos;
+        private long lastTouchNanos;
+        private int frames;
+        private int droppedFrames;
+
+        FrameMonitor(StackAnimator stackAnimator) {
+            this.stackAnimator = stackAnimator;
+        }
+
+        void start() {
+            if (!running) {
+                running = true;
+                lastFrameNanos = 0;
+                frameIntervalNanos = Long.MAX_VALUE;
+                lastTouchNanos = 0;
+                frames = 0;
+                droppedFrames = 0;
+                stackAnimator.addFrameListener(this);
+            }
+        }
+
+        void stop() {
+            if (running) {
+                running = false;
+                stackAnimator.removeFrameListener(this);
+                listener.onGestureFrames(frames, droppedFrames);
+            }
+        }
+
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            frames++;
+            final long interval = frameTimeNanos - lastFrameNanos;
+            if (lastFrameNanos != 0 && interval > 0) {
+                frameIntervalNanos = Math.min(frameIntervalNanos, interval);
+                // Rounded, as frame times jitter around the vsync.
+                droppedFrames += (interval + frameIntervalNanos / 2) / frameIntervalNanos - 1;
+            }
+            if (lastTouchNanos != 0) {
+                listener.onTouchToFrame(frameTimeNanos - lastTouchNanos);
+                lastTouchNanos = 0;
+            }
+            lastFrameNanos = frameTimeNanos;
+            return true;
+        }
+    }
+}
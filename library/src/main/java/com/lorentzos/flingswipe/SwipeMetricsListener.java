@@ -0,0 +1,73 @@
+package com.lorentzos.flingswipe;
+
+/**
+ * Receives timings from a {@link SwipeFlingAdapterView}, to find out where a janky swipe spends
+ * its time. Every method is called on the main thread. Nothing is measured unless a listener is
+ * set through {@link SwipeFlingAdapterView#setMetricsListener(SwipeMetricsListener)}.
+ */
+public interface SwipeMetricsListener {
+
+    /**
+     * The stack was laid out.
+     *
+     * @param durationNanos The time spent in the layout pass.
+     * @param incremental   True if only the card that exited was replaced, false for a full
+     *                      layout of every card.
+     */
+    public void onStackLayout(long durationNanos, boolean incremental);
+
+    /**
+     * The stack was built in stages, with <code>staged_layout</code>, and is now complete.
+     *
+     * @param firstCardNanos The time until the top card was laid out and could be dragged.
+     * @param totalNanos     The time until the last card below it was added.
+     * @param cardCount      The number of cards in the stack.
+     */
+    public void onStagedLayout(long firstCardNanos, long totalNanos, int cardCount);
+
+    /**
+     * The adapter bound a card.
+     *
+     * @param position      The adapter position.
+     * @param durationNanos The time spent in {@link android.widget.Adapter#getView}.
+     * @param recycled      True if the adapter reused the recycled view it was given.
+     */
+    public void onGetView(int position, long durationNanos, boolean recycled);
+
+    /**
+     * A card was added to the stack.
+     *
+     * @param durationNanos The time spent measuring and laying out the card.
+     */
+    public void onMakeAndAddView(long durationNanos);
+
+    /**
+     * The top card handled a touch event.
+     *
+     * @param action        The masked action of the event.
+     * @param durationNanos The time spent handling it.
+     */
+    public void onTouchHandled(int action, long durationNanos);
+
+    /**
+     * A frame was drawn after a move of the top card.
+     *
+     * @param latencyNanos The time from the latest touch event to the start of the frame.
+     */
+    public void onTouchToFrame(long latencyNanos);
+
+    /**
+     * The exit animation of the top card ended.
+     *
+     * @param durationMillis The time from the start of the animation to its end.
+     */
+    public void onExitAnimation(long durationMillis);
+
+    /**
+     * The top card stopped moving. Frames are only counted on API 16 and above.
+     *
+     * @param frames        The frames drawn while the card was dragged or animated.
+     * @param droppedFrames The frames skipped over the same time.
+     */
+    public void onGestureFrames(int frames, int droppedFrames);
+}
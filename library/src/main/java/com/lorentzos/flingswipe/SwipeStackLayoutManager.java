@@ -0,0 +1,198 @@
+package com.lorentzos.flingswipe;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Lays out the first items of a {@link RecyclerView} as a stack of cards, the first item on top,
+ * and lets the top card be swiped away with the same rotation and exit trajectory as
+ * {@link SwipeFlingAdapterView}. Only the visible cards are ever bound, so the adapter may hold
+ * any number of items, and the cards come from the RecyclerView's view pool.
+ * <p/>
+ * Once a card has exited, remove its item from the adapter and notify it with
+ * {@link RecyclerView.Adapter#notifyItemRemoved(int)}.
+ */
+public class SwipeStackLayoutManager extends RecyclerView.LayoutManager {
+    private final OnSwipeListener swipeListener;
+    private final int maxVisible;
+    private final float rotationDegrees;
+    private final StackAnimator stackAnimator;
+
+    private FlingCardListener flingCardListener;
+    private View topCard;
+    private boolean topCardExited = false;
+
+    public SwipeStackLayoutManager(OnSwipeListener swipeListener) {
+        this(swipeListener, 4, 15f);
+    }
+
+    /**
+     * @param swipeListener   Receives the swipes and clicks of the top card.
+     * @param maxVisible      The max number of cards in the stack.
+     * @param rotationDegrees The rotation of the top card when dragged to the border.
+     */
+    public SwipeStackLayoutManager(OnSwipeListener swipeListener, int maxVisible,
+                                   float rotationDegrees) {
+        this.swipeListener = swipeListener;
+        this.maxVisible = maxVisible;
+        this.rotationDegrees = rotationDegrees;
+        this.stackAnimator = Build.VERSION.SDK_INT >= 16 ? new StackAnimator() : null;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new RecyclerView.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        final View previousTopCard = topCard;
+        detachAndScrapAttachedViews(recycler);
+        topCard = null;
+
+        final int count = Math.min(getItemCount(), maxVisible);
+        // The deepest card first, so that the first item is drawn on top.
+        for (int position = count - 1; position >= 0; position--) {
+            final View card = recycler.getViewForPosition(position);
+            addView(card);
+            // A card being dragged keeps where it is, every other one starts at rest.
+            final boolean moving = position == 0 && card == previousTopCard && !topCardExited;
+            if (!moving) {
+                resetCard(card);
+            }
+            measureChildWithMargins(card, 0, 0);
+            layoutCard(card);
+            topCard = card;
+        }
+
+        if (topCard != null && (topCard != previousTopCard || topCardExited)) {
+            bindTopCard();
+        }
+    }
+
+    private void layoutCard(View card) {
+        final int width = getDecoratedMeasuredWidth(card);
+        final int height = getDecoratedMeasuredHeight(card);
+        final int left = getPaddingLeft()
+                + (getWidth() - getPaddingLeft() - getPaddingRight() - width) / 2;
+        final int top = getPaddingTop()
+                + (getHeight() - getPaddingTop() - getPaddingBottom() - height) / 2;
+        layoutDecorated(card, left, top, left + width, top + height);
+    }
+
+    @TargetApi(11)
+    private void resetCard(View card) {
+        card.setOnTouchListener(null);
+        if (stackAnimator != null) {
+            stackAnimator.cancel(card);
+        }
+        if (Build.VERSION.SDK_INT >= 11) {
+            card.setTranslationX(0);
+            card.setTranslationY(0);
+            card.setRotation(0);
+        }
+    }
+
+    private void bindTopCard() {
+        topCardExited = false;
+        if (flingCardListener == null) {
+            flingCardListener = new FlingCardListener(topCard, topCard, rotationDegrees,
+                    new TopCardFlingListener());
+            flingCardListener.setStackAnimator(stackAnimator);
+        } else {
+            flingCardListener.rebind(topCard, topCard);
+        }
+        topCard.setOnTouchListener(flingCardListener);
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        removeAllViews();
+        topCard = null;
+    }
+
+    /**
+     * Swipe the top card to the left, as if dragged there.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void swipeLeft() {
+        if (flingCardListener != null && topCard != null && !topCardExited) {
+            flingCardListener.selectLeft();
+        }
+    }
+
+    /**
+     * Swipe the top card to the right, as if dragged there.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void swipeRight() {
+        if (flingCardListener != null && topCard != null && !topCardExited) {
+            flingCardListener.selectRight();
+        }
+    }
+
+    /**
+     * The data object of the listener is the card itself, its position is looked up when needed.
+     */
+    private class TopCardFlingListener implements FlingCardListener.FlingListener {
+        @Override
+        public void onCardExited() {
+            topCardExited = true;
+        }
+
+        @Override
+        public void leftExit(Object dataObject) {
+            swipeListener.onCardSwiped(getPosition((View) dataObject), true);
+        }
+
+        @Override
+        public void rightExit(Object dataObject) {
+            swipeListener.onCardSwiped(getPosition((View) dataObject), false);
+        }
+
+        @Override
+        public void onClick(Object dataObject) {
+            swipeListener.onCardClicked(getPosition((View) dataObject));
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+            swipeListener.onScroll(scrollProgressPercent);
+        }
+
+        @Override
+        public void onScrollReleased(float scrollProgressPercent) {
+            swipeListener.onScroll(scrollProgressPercent);
+        }
+
+        @Override
+        public void onMoveStarted() {
+        }
+
+        @Override
+        public void onMoveFinished() {
+        }
+    }
+
+    public interface OnSwipeListener {
+        /**
+         * The top card left the stack. Remove its item from the adapter and call
+         * {@link RecyclerView.Adapter#notifyItemRemoved(int)}.
+         *
+         * @param position The adapter position of the card.
+         * @param isLeft   True for a left exit, false for a right one.
+         */
+        public void onCardSwiped(int position, boolean isLeft);
+
+        public void onCardClicked(int position);
+
+        /**
+         * @param scrollProgressPercent -1 at the left border, 1 at the right border.
+         */
+        public void onScroll(float scrollProgressPercent);
+    }
+}
@@ -0,0 +1,23 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.runners.model.InitializationError;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+
+/**
+ * Leaves the classes of the allocation agent to the JVM's class loader, so that the tests add
+ * their sampler to the same recorder the instrumented classes report to, see
+ * {@link Allocations}.
+ */
+public class AllocationTestRunner extends RobolectricGradleTestRunner {
+    public AllocationTestRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+    }
+
+    @Override
+    public InstrumentationConfiguration createClassLoaderConfig() {
+        return InstrumentationConfiguration.newBuilder()
+                .doNotAquirePackage("com.google.monitoring")
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.lorentzos.flingswipe;
+
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder;
+import com.google.monitoring.runtime.instrumentation.Sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records what the library allocates on the test thread, through the allocation agent the tests
+ * run with, see library/build.gradle. Tests which use it run with {@link AllocationTestRunner}.
+ * <p/>
+ * An object counts if the innermost frame which created it, the JDK aside, is a library class.
+ * What the framework allocates does not: Robolectric allocates on calls which do not allocate
+ * on a device, e.g. on every {@link android.view.View#getX()}.
+ */
+final class Allocations {
+    private static final String LIBRARY_PACKAGE = "com.lorentzos.flingswipe.";
+    private static final String[] SKIPPED_PACKAGES = {
+            "java.", "javax.", "sun.", "com.sun.", "jdk.", "com.google.monitoring."
+    };
+    private static final Recorder RECORDER = new Recorder();
+
+    static {
+        AllocationRecorder.addSampler(RECORDER);
+    }
+
+    private Allocations() {
+    }
+
+    /**
+     * @return false if the JVM runs without the agent, e.g. when started from an IDE.
+     */
+    static boolean isRecorded() {
+        start();
+        new Object();
+        return !stop().isEmpty();
+    }
+
+    static void start() {
+        RECORDER.sites.clear();
+        RECORDER.thread = Thread.currentThread();
+    }
+
+    /**
+     * @return where the library allocated since {@link #start()}, one line per object.
+     */
+    static List<String> stop() {
+        RECORDER.thread = null;
+        return new ArrayList<>(RECORDER.sites);
+    }
+
+    private static boolean isSkipped(String className) {
+        if (className.equals(Recorder.class.getName())) {
+            return true;
+        }
+        for (String skipped : SKIPPED_PACKAGES) {
+            if (className.startsWith(skipped)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Recorder implements Sampler {
+        private final List<String> sites = new ArrayList<>();
+        private volatile Thread thread;
+        // What the sampler allocates is reported to it as well.
+        private boolean sampling = false;
+
+        @Override
+        public void sampleAllocation(int count, String desc, Object newObj, long size) {
+            if (Thread.currentThread() != thread || sampling) {
+                return;
+            }
+            sampling = true;
+            try {
+                for (StackTraceElement element : new Throwable().getStackTrace()) {
+                    final String className = element.getClassName();
+                    if (isSkipped(className)) {
+                        continue;
+                    }
+                    if (className.startsWith(LIBRARY_PACKAGE)) {
+                        // A count of -1 is a plain object, any other an array of that length.
+                        sites.add((count < 0 ? desc : desc + "[" + count + "]") + " at "
+                                + element);
+                    }
+                    return;
+                }
+            } finally {
+                sampling = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.DIRECT;
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CardStackAdapterTest {
+    @Test
+    public void idIsThePositionWithoutStableIds() {
+        CardStackAdapter<String> adapter = adapter(4, false);
+        adapter.add("a");
+        adapter.add("b");
+
+        assertFalse(adapter.hasStableIds());
+        assertEquals(1, adapter.getItemId(1));
+        adapter.removeFirst();
+        assertEquals(0, adapter.getItemId(0));
+    }
+
+    @Test
+    public void stableIdFollowsTheCard() {
+        CardStackAdapter<String> adapter = adapter(4, true);
+        adapter.addAll(Arrays.asList("a", "b", "c"));
+        final long idOfB = adapter.getItemId(1);
+
+        adapter.removeFirst();
+
+        assertTrue(adapter.hasStableIds());
+        assertEquals(idOfB, adapter.getItemId(0));
+        assertNotEquals(adapter.getItemId(0), adapter.getItemId(1));
+    }
+
+    @Test
+    public void cardsWithEqualKeysShareAnId() {
+        CardStackAdapter<String> adapter = adapter(4, true);
+        adapter.addAll(Arrays.asList("a", "b", "a"));
+        final long idOfA = adapter.getItemId(0);
+
+        assertEquals(idOfA, adapter.getItemId(2));
+        adapter.removeFirst();
+        // The other "a" is still held.
+        assertEquals(idOfA, adapter.getItemId(1));
+    }
+
+    @Test
+    public void removedKeyGetsANewId() {
+        CardStackAdapter<String> adapter = adapter(4, true);
+        adapter.add("a");
+        final long idOfA = adapter.getItemId(0);
+
+        adapter.removeFirst();
+        adapter.add("a");
+
+        assertNotEquals(idOfA, adapter.getItemId(0));
+    }
+
+    @Test
+    public void submittedListKeepsTheIdsOfTheCardsWhichStayed() {
+        CardStackAdapter<String> adapter = adapter(3, true);
+        adapter.addAll(Arrays.asList("a", "b", "c"));
+        final long idOfB = adapter.getItemId(1);
+        final long idOfC = adapter.getItemId(2);
+
+        // Replaces a full adapter with another full list.
+        adapter.submitList(Arrays.asList("c", "b", "d"), DIRECT);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(3, adapter.getCount());
+        assertEquals(idOfC, adapter.getItemId(0));
+        assertEquals(idOfB, adapter.getItemId(1));
+        assertNotEquals(idOfB, adapter.getItemId(2));
+        assertNotEquals(idOfC, adapter.getItemId(2));
+    }
+
+    @Test
+    public void appendedCardsKeepTheStack() {
+        final CardStackAdapter.Update update = submit(cards("a", "b"), cards("a", "b", "c", "d"));
+
+        assertTrue(update.isKept(0));
+        assertTrue(update.isKept(1));
+        assertFalse(update.isKept(2));
+        assertFalse(update.isChanged(1));
+        assertEquals(2, update.firstDifference);
+    }
+
+    @Test
+    public void editedCardIsKeptAndChanged() {
+        final List<TestCardAdapter.Card> newCards = cards("a", "b", "c");
+        newCards.set(1, new TestCardAdapter.Card("b", "edited"));
+
+        final CardStackAdapter.Update update = submit(cards("a", "b", "c"), newCards);
+
+        assertTrue(update.isKept(1));
+        assertTrue(update.isChanged(1));
+        assertFalse(update.isChanged(2));
+        assertEquals(1, update.firstDifference);
+    }
+
+    @Test
+    public void movedCardsAreNotKept() {
+        final CardStackAdapter.Update update = submit(cards("a", "b", "c"), cards("b", "a", "c"));
+
+        assertFalse(update.isKept(0));
+        assertFalse(update.isKept(1));
+        assertTrue(update.isKept(2));
+        assertEquals(0, update.firstDifference);
+    }
+
+    @Test
+    public void identicalListChangesNothing() {
+        final CardStackAdapter.Update update = submit(cards("a", "b"), cards("a", "b"));
+
+        assertEquals(2, update.firstDifference);
+    }
+
+    @Test
+    public void diffIsComputedAgainWhenTheCardsChangeInTheMeantime() {
+        final TestCardAdapter adapter = new TestCardAdapter(10, false);
+        adapter.addAll(cards("a", "b"));
+        final UpdateRecorder recorder = new UpdateRecorder();
+        adapter.setUpdateObserver(recorder);
+        final QueuedExecutor executor = new QueuedExecutor();
+
+        adapter.submitList(cards("b", "c"), executor);
+        // The top card is swiped away while the diff runs.
+        adapter.removeFirst();
+        executor.runAll();
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(1, recorder.updates.size());
+        // Diffed against "b" alone, which stayed on top.
+        assertTrue(recorder.updates.get(0).isKept(0));
+        assertEquals("c", adapter.getItem(1).id);
+    }
+
+    @Test
+    public void laterSubmissionWins() {
+        final TestCardAdapter adapter = new TestCardAdapter(10, false);
+        final UpdateRecorder recorder = new UpdateRecorder();
+        adapter.setUpdateObserver(recorder);
+        final QueuedExecutor executor = new QueuedExecutor();
+
+        adapter.submitList(cards("a"), executor);
+        adapter.submitList(cards("b", "c"), executor);
+        executor.runAll();
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(1, recorder.updates.size());
+        assertEquals(2, adapter.getCount());
+        assertEquals("b", adapter.getItem(0).id);
+    }
+
+    private static CardStackAdapter.Update submit(List<TestCardAdapter.Card> oldCards,
+                                                  List<TestCardAdapter.Card> newCards) {
+        final TestCardAdapter adapter = new TestCardAdapter(10, false);
+        adapter.addAll(oldCards);
+        final UpdateRecorder recorder = new UpdateRecorder();
+        adapter.setUpdateObserver(recorder);
+
+        adapter.submitList(newCards, DIRECT);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(1, recorder.updates.size());
+        assertEquals(newCards.size(), adapter.getCount());
+        return recorder.updates.get(0);
+    }
+
+    private static CardStackAdapter<String> adapter(int capacity, boolean stableIds) {
+        return new CardStackAdapter<String>(capacity, stableIds) {
+            @Override
+            public View getView(int position, View convertView, ViewGroup parent) {
+                return convertView;
+            }
+        };
+    }
+
+    private static final class UpdateRecorder implements CardStackAdapter.UpdateObserver {
+        final List<CardStackAdapter.Update> updates = new ArrayList<>();
+
+        @Override
+        public void onUpdate(CardStackAdapter.Update update) {
+            updates.add(update);
+        }
+    }
+
+    /**
+     * Runs the diffs when told to, so that the cards can change while one is pending.
+     */
+    private static final class QueuedExecutor implements Executor {
+        private final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            commands.add(command);
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+                ShadowLooper.runUiThreadTasks();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CardStackTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapacityBelowOne() {
+        new CardStack<String>(0);
+    }
+
+    @Test
+    public void keepsTheCardsInOrder() {
+        CardStack<String> stack = new CardStack<>(4);
+        assertTrue(stack.offer("a"));
+        assertTrue(stack.offer("b"));
+        assertTrue(stack.offer("c"));
+
+        assertEquals(3, stack.size());
+        assertEquals("a", stack.get(0));
+        assertEquals("c", stack.get(2));
+        assertEquals("a", stack.poll());
+        assertEquals("b", stack.get(0));
+        assertEquals(2, stack.size());
+    }
+
+    @Test
+    public void refusesCardsBeyondItsCapacity() {
+        CardStack<String> stack = new CardStack<>(2);
+        assertTrue(stack.offer("a"));
+        assertTrue(stack.offer("b"));
+
+        assertFalse(stack.offer("c"));
+        assertEquals(0, stack.remainingCapacity());
+        assertEquals(2, stack.capacity());
+    }
+
+    @Test
+    public void wrapsAroundTheRingBuffer() {
+        CardStack<Integer> stack = new CardStack<>(3);
+        for (int i = 0; i < 3; i++) {
+            stack.offer(i);
+        }
+        // Many more cards than the capacity go through the stack.
+        for (int i = 3; i < 100; i++) {
+            assertEquals(Integer.valueOf(i - 3), stack.poll());
+            assertTrue(stack.offer(i));
+        }
+
+        assertEquals(Integer.valueOf(97), stack.get(0));
+        assertEquals(Integer.valueOf(98), stack.get(1));
+        assertEquals(Integer.valueOf(99), stack.get(2));
+    }
+
+    @Test
+    public void pollsNullWhenEmpty() {
+        CardStack<String> stack = new CardStack<>(2);
+        assertTrue(stack.isEmpty());
+        assertNull(stack.poll());
+    }
+
+    @Test
+    public void rejectsPositionsOutsideTheStack() {
+        CardStack<String> stack = new CardStack<>(4);
+        stack.offer("a");
+        try {
+            stack.get(1);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+            // The slot exists in the buffer, but not in the stack.
+        }
+        try {
+            stack.get(-1);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+            // Never a valid position.
+        }
+    }
+
+    @Test
+    public void clearEmptiesTheStack() {
+        CardStack<String> stack = new CardStack<>(3);
+        stack.offer("a");
+        stack.offer("b");
+        stack.poll();
+        stack.clear();
+
+        assertTrue(stack.isEmpty());
+        assertEquals(3, stack.remainingCapacity());
+        assertTrue(stack.offer("c"));
+        assertEquals("c", stack.get(0));
+    }
+}
@@ -0,0 +1,77 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.Attribute;
+import org.robolectric.shadows.RoboAttributeSet;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static com.lorentzos.flingswipe.TestStack.layout;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Exits the top card of a {@link TestStack} with <code>depth_scale_step</code> set to 0.1, running
+ * the frames of the stack's {@link StackAnimator} by hand.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DepthTransformTest {
+    private SwipeFlingAdapterView view;
+    private long frameTime;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        final List<Attribute> attributes = Collections.singletonList(new Attribute(
+                "com.lorentzos.flingswipe:attr/depth_scale_step", "0.1",
+                "com.lorentzos.flingswipe"));
+        view = new SwipeFlingAdapterView(RuntimeEnvironment.application,
+                new RoboAttributeSet(attributes,
+                        Shadows.shadowOf(RuntimeEnvironment.application).getResourceLoader()));
+        view.setFlingListener(new SwipeFlingAdapterViewTest.NoOpFlingListener());
+        final TestCardAdapter adapter = new TestCardAdapter(100, false);
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+        frameTime = 0;
+    }
+
+    @Test
+    public void cardBelowFollowsTheTopCardOnTheSameFrame() {
+        final View below = view.getChildAt(view.getChildCount() - 2);
+        assertEquals(0.9f, below.getScaleX(), 1e-6f);
+
+        view.getTopCardListener().selectRight();
+        frameTime = TestStack.runFrames(view.stackAnimator, frameTime, 1);
+
+        final float progress = Math.min(1f,
+                Math.abs(view.getTopCardListener().getScrollProgress()));
+        assertTrue(progress > 0);
+        assertEquals(0.9f + 0.1f * progress, below.getScaleX(), 1e-6f);
+    }
+
+    @Test
+    public void cardBelowReachesTheTopOnceTheExitEnds() {
+        final View top = view.getSelectedView();
+        final View below = view.getChildAt(view.getChildCount() - 2);
+
+        view.getTopCardListener().selectRight();
+        for (int i = 0; i < 100 && view.stackAnimator.isAnimating(top); i++) {
+            frameTime = TestStack.runFrames(view.stackAnimator, frameTime, 1);
+        }
+
+        assertEquals(1f, below.getScaleX(), 1e-6f);
+    }
+}
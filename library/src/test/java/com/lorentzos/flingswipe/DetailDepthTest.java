@@ -0,0 +1,122 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.Attribute;
+import org.robolectric.shadows.RoboAttributeSet;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static com.lorentzos.flingswipe.TestStack.layout;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Swipes the top card of a {@link TestStack} of the default 4 cards with
+ * <code>detail_depth</code> set to 2, so that the two cards at the bottom are placeholders.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DetailDepthTest {
+    private SwipeFlingAdapterView view;
+    private HidingCardAdapter adapter;
+    private long frameTime;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        final List<Attribute> attributes = Collections.singletonList(new Attribute(
+                "com.lorentzos.flingswipe:attr/detail_depth", "2", "com.lorentzos.flingswipe"));
+        view = new SwipeFlingAdapterView(RuntimeEnvironment.application,
+                new RoboAttributeSet(attributes,
+                        Shadows.shadowOf(RuntimeEnvironment.application).getResourceLoader()));
+        adapter = new HidingCardAdapter();
+        view.setFlingListener(new SwipeFlingAdapterViewTest.NoOpFlingListener() {
+            @Override
+            public void removeFirstObjectInAdapter() {
+                adapter.removeFirst();
+            }
+        });
+        frameTime = 0;
+    }
+
+    @Test
+    public void cardWhichMovesUpIsBoundInPlace() {
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+        assertTrue(placeholderAt(2));
+
+        swipeRight();
+
+        assertFalse(view.isLayoutRequested());
+        assertEquals("b", idAt(0));
+        assertEquals("c", idAt(1));
+        assertTrue(placeholderAt(2));
+        assertTrue(placeholderAt(3));
+    }
+
+    @Test
+    public void hiddenCardLeadsToAFullLayout() {
+        adapter.hiddenId = "b";
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+
+        swipeRight();
+
+        // Promoting by depth would have bound the hidden "b" in place of "c".
+        assertTrue(view.isLayoutRequested());
+        layout(view);
+        assertEquals("c", idAt(0));
+    }
+
+    private void swipeRight() {
+        view.getTopCardListener().selectRight();
+        for (int i = 0; i < 100 && view.getTopCardListener().isExiting(); i++) {
+            frameTime = TestStack.runFrames(view.stackAnimator, frameTime, 1);
+        }
+    }
+
+    private View childAt(int depth) {
+        return view.getChildAt(view.getChildCount() - 1 - depth);
+    }
+
+    private boolean placeholderAt(int depth) {
+        return childAt(depth).getTag() == null;
+    }
+
+    private String idAt(int depth) {
+        return ((TestCardAdapter.Card) childAt(depth).getTag()).id;
+    }
+
+    /**
+     * Hides the card of the given id, the stack then skips it.
+     */
+    private static final class HidingCardAdapter extends TestCardAdapter {
+        String hiddenId;
+
+        HidingCardAdapter() {
+            super(100, false);
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            final View card = super.getView(position, convertView, parent);
+            card.setVisibility(getItem(position).id.equals(hiddenId) ? View.GONE : View.VISIBLE);
+            return card;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.lorentzos.flingswipe;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.Scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Plays a gesture on a card of the {@link TestStack}, once to warm up and once more through a new
+ * listener, and checks that the library allocates nothing from the down event to the end of the
+ * animation the release starts. The animation is either the platform's or the springs of a
+ * {@link StackAnimator}, with a frame listener along, as the stack runs them.
+ */
+@RunWith(AllocationTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FlingCardListenerAllocationTest {
+    private static final float TOUCH_X = 375f;
+    private static final float TOUCH_Y = 350f;
+    private static final long DOWN_TIME = 1000;
+    private static final int MAX_FRAMES = 100;
+
+    private View card;
+    private RecordingFlingListener flingListener;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Allocations.isRecorded());
+
+        card = TestStack.cardInWindow();
+    }
+
+    @Test
+    public void swipeAllocatesNothingAfterWarmUp() {
+        play(30, 20, 16, null);
+
+        final List<String> allocations = play(30, 20, 16, null);
+
+        assertEquals(Collections.<String>emptyList(), allocations);
+        assertEquals(1, flingListener.rightExits);
+    }
+
+    @Test
+    public void snapBackAllocatesNothingAfterWarmUp() {
+        play(-10, 5, 100, null);
+
+        final List<String> allocations = play(-10, 5, 100, null);
+
+        assertEquals(Collections.<String>emptyList(), allocations);
+        assertEquals(0, flingListener.rightExits + flingListener.leftExits);
+        assertEquals(TestStack.CARD_X, card.getX(), 0f);
+    }
+
+    @Test
+    public void springSwipeAllocatesNothingAfterWarmUp() {
+        final StackAnimator animator = new StackAnimator();
+        play(30, 20, 16, animator);
+
+        final List<String> allocations = play(30, 20, 16, animator);
+
+        assertEquals(Collections.<String>emptyList(), allocations);
+        assertEquals(1, flingListener.rightExits);
+    }
+
+    @Test
+    public void springSnapBackAllocatesNothingAfterWarmUp() {
+        final StackAnimator animator = new StackAnimator();
+        play(-10, 5, 100, animator);
+
+        final List<String> allocations = play(-10, 5, 100, animator);
+
+        assertEquals(Collections.<String>emptyList(), allocations);
+        assertEquals(0, flingListener.rightExits + flingListener.leftExits);
+        assertEquals(TestStack.CARD_X, card.getX(), 0f);
+    }
+
+    /**
+     * Drags the card from rest through a new listener, as if it followed the finger: the touch
+     * stays at the same place on the card while the card moves by the given step, then releases
+     * it and runs the animation that follows.
+     *
+     * @param animator The springs the card moves with, or null for the platform's animations.
+     * @return where the library allocated along the way.
+     */
+    private List<String> play(float stepX, int moves, long frameMillis, StackAnimator animator) {
+        card.animate().setListener(null).cancel();
+        card.setX(TestStack.CARD_X);
+        card.setY(TestStack.CARD_Y);
+        card.setRotation(0);
+        flingListener = new RecordingFlingListener();
+        final FlingCardListener listener = new FlingCardListener(card, "card", flingListener);
+        final List<String> allocations = new ArrayList<>();
+        if (animator != null) {
+            listener.setStackAnimator(animator);
+            // Follows the card, as the depth transforms do.
+            animator.addFrameListener(new StackAnimator.FrameListener() {
+                @Override
+                public boolean onFrame(long frameTimeNanos) {
+                    return card.getX() != TestStack.CARD_X;
+                }
+            });
+        }
+
+        long time = DOWN_TIME;
+        touch(listener, MotionEvent.ACTION_DOWN, TOUCH_X, time, allocations);
+        for (int i = 0; i < moves; i++) {
+            time += frameMillis;
+            touch(listener, MotionEvent.ACTION_MOVE, TOUCH_X + stepX, time, allocations);
+        }
+        touch(listener, MotionEvent.ACTION_UP, TOUCH_X + stepX, time + frameMillis, allocations);
+
+        // Every frame of the animation posts the next one.
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        Allocations.start();
+        for (int i = 0; i < MAX_FRAMES && scheduler.size() > 0; i++) {
+            scheduler.advanceToNextPostedRunnable();
+        }
+        allocations.addAll(Allocations.stop());
+        assertEquals("animation frames left", 0, scheduler.size());
+        return allocations;
+    }
+
+    private void touch(FlingCardListener listener, int action, float x, long time,
+                       List<String> allocations) {
+        final MotionEvent event = MotionEvent.obtain(DOWN_TIME, time, action, x, TOUCH_Y, 0);
+        Allocations.start();
+        listener.onTouch(card, event);
+        allocations.addAll(Allocations.stop());
+        event.recycle();
+    }
+
+    private static final class RecordingFlingListener implements FlingCardListener.FlingListener {
+        int leftExits = 0;
+        int rightExits = 0;
+
+        @Override
+        public void onCardExited() {
+        }
+
+        @Override
+        public void leftExit(Object dataObject) {
+            leftExits++;
+        }
+
+        @Override
+        public void rightExit(Object dataObject) {
+            rightExits++;
+        }
+
+        @Override
+        public void onClick(Object dataObject) {
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+        }
+
+        @Override
+        public void onScrollReleased(float scrollProgressPercent) {
+        }
+
+        @Override
+        public void onMoveStarted() {
+        }
+
+        @Override
+        public void onMoveFinished() {
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.lorentzos.flingswipe;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Touches a card of the {@link TestStack} which moves with the springs of a
+ * {@link StackAnimator}, running their frames by hand.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FlingCardListenerTest {
+    private static final float TOUCH_X = 375f;
+    private static final float TOUCH_Y = 350f;
+    private static final long DOWN_TIME = 1000;
+
+    private View card;
+    private StackAnimator animator;
+    private RecordingFlingListener flingListener;
+    private FlingCardListener listener;
+    private long frameTime;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        card = TestStack.card(RuntimeEnvironment.application);
+        animator = new StackAnimator();
+        flingListener = new RecordingFlingListener();
+        listener = new FlingCardListener(card, "card", flingListener);
+        listener.setStackAnimator(animator);
+        frameTime = 0;
+    }
+
+    @Test
+    public void cancelledDragSnapsBack() {
+        touch(MotionEvent.ACTION_DOWN, TOUCH_X, DOWN_TIME);
+        touch(MotionEvent.ACTION_MOVE, TOUCH_X + 100, DOWN_TIME + 16);
+        touch(MotionEvent.ACTION_CANCEL, TOUCH_X + 100, DOWN_TIME + 32);
+
+        assertEquals(1, flingListener.moveStarts);
+        assertEquals(0f, flingListener.releasedProgress, 0f);
+        assertEquals(0, flingListener.moveFinishes);
+        for (int i = 0; i < 100 && animator.isAnimating(card); i++) {
+            frameTime = TestStack.runFrames(animator, frameTime, 1);
+        }
+
+        assertFalse(animator.isAnimating(card));
+        assertEquals(TestStack.CARD_X, card.getX(), 0f);
+        assertEquals(1, flingListener.moveFinishes);
+        assertEquals(0, flingListener.exits + flingListener.clicks);
+        assertFalse(listener.isHeldOrMoving());
+    }
+
+    @Test
+    public void cancelledTouchIsNotAClick() {
+        touch(MotionEvent.ACTION_DOWN, TOUCH_X, DOWN_TIME);
+        touch(MotionEvent.ACTION_CANCEL, TOUCH_X, DOWN_TIME + 16);
+
+        assertEquals(0, flingListener.clicks);
+        assertEquals(0, flingListener.moveStarts);
+        assertFalse(animator.isAnimating(card));
+        assertFalse(listener.isHeldOrMoving());
+    }
+
+    private void touch(int action, float x, long time) {
+        final MotionEvent event = MotionEvent.obtain(DOWN_TIME, time, action, x, TOUCH_Y, 0);
+        listener.onTouch(card, event);
+        event.recycle();
+    }
+
+    private static final class RecordingFlingListener implements FlingCardListener.FlingListener {
+        int exits = 0;
+        int clicks = 0;
+        int moveStarts = 0;
+        int moveFinishes = 0;
+        float releasedProgress = Float.NaN;
+
+        @Override
+        public void onCardExited() {
+        }
+
+        @Override
+        public void leftExit(Object dataObject) {
+            exits++;
+        }
+
+        @Override
+        public void rightExit(Object dataObject) {
+            exits++;
+        }
+
+        @Override
+        public void onClick(Object dataObject) {
+            clicks++;
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+        }
+
+        @Override
+        public void onScrollReleased(float scrollProgressPercent) {
+            releasedProgress = scrollProgressPercent;
+        }
+
+        @Override
+        public void onMoveStarted() {
+            moveStarts++;
+        }
+
+        @Override
+        public void onMoveFinished() {
+            moveFinishes++;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays gestures on a card of the {@link TestStack} and checks the decision each of them ends
+ * with.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureReplayerTest {
+    private View card;
+    private GestureReplayer replayer;
+
+    @Before
+    public void setUp() {
+        card = TestStack.card(RuntimeEnvironment.application);
+        replayer = new GestureReplayer(card, "card");
+    }
+
+    @Test
+    public void dragBeyondTheRightBorderSwipesRight() throws Exception {
+        GestureTrace trace = TestGestures.drag(card, 30, 2, 20, 16);
+
+        assertEquals(GestureReplayer.DECISION_RIGHT, replayer.replay(trace).getDecision());
+    }
+
+    @Test
+    public void dragBeyondTheLeftBorderSwipesLeft() throws Exception {
+        GestureTrace trace = TestGestures.drag(card, -30, 2, 20, 16);
+
+        assertEquals(GestureReplayer.DECISION_LEFT, replayer.replay(trace).getDecision());
+    }
+
+    @Test
+    public void quickFlickSwipesBeforeTheBorder() throws Exception {
+        GestureTrace trace = TestGestures.drag(card, -20, 0, 3, 8);
+
+        assertEquals(GestureReplayer.DECISION_LEFT, replayer.replay(trace).getDecision());
+    }
+
+    @Test
+    public void slowShortDragSnapsBack() throws Exception {
+        GestureTrace trace = TestGestures.drag(card, -10, 0, 5, 100);
+
+        assertEquals(GestureReplayer.DECISION_SNAP_BACK, replayer.replay(trace).getDecision());
+    }
+
+    @Test
+    public void tapClicks() throws Exception {
+        assertEquals(GestureReplayer.DECISION_CLICK,
+                replayer.replay(TestGestures.tap(card)).getDecision());
+    }
+
+    @Test
+    public void replayStartsFromRestEveryTime() throws Exception {
+        GestureTrace right = TestGestures.drag(card, 30, 0, 20, 16);
+        GestureTrace snapBack = TestGestures.drag(card, -10, 0, 5, 100);
+
+        assertEquals(GestureReplayer.DECISION_RIGHT, replayer.replay(right).getDecision());
+        assertEquals(GestureReplayer.DECISION_SNAP_BACK, replayer.replay(snapBack).getDecision());
+        assertEquals(GestureReplayer.DECISION_RIGHT, replayer.replay(right).getDecision());
+    }
+
+    @Test
+    public void savedTraceReplaysTheSame() throws Exception {
+        GestureTrace trace = TestGestures.drag(card, 30, 2, 20, 16);
+        GestureTrace saved = GestureTrace.read(new ByteArrayInputStream(trace.toByteArray()));
+
+        assertEquals(trace.getEventCount(), saved.getEventCount());
+        assertEquals(TestStack.CARD_X, saved.getCardX(), 0f);
+        assertEquals(TestStack.WIDTH, saved.getParentWidth());
+        assertEquals(replayer.replay(trace).getDecision(), replayer.replay(saved).getDecision());
+    }
+
+    @Test
+    public void measuresEveryEventOnTheJvm() throws Exception {
+        GestureTrace trace = TestGestures.drag(card, 30, 2, 20, 16);
+
+        GestureReplayer.Result result = replayer.replay(trace);
+
+        assertEquals(trace.getEventCount(), result.getEventCount());
+        // Debug would read zeros under Robolectric.
+        assertTrue(result.getTotalCpuTimeNanos() > 0);
+        assertTrue(result.getTotalAllocatedBytes() >= 0);
+    }
+}
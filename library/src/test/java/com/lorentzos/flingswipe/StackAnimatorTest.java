@@ -0,0 +1,216 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the springs frame by frame, 16ms apart, the way an exit of 50ms moves a card. The frames
+ * the animator posts itself are held back.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class StackAnimatorTest {
+    // The stiffness FlingCardListener uses for an exit of 50ms.
+    private static final float OMEGA = 200f;
+
+    private View card;
+    private StackAnimator animator;
+    private CountingEndListener endListener;
+    private long frameTime;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        card = TestStack.addCard(new RotatingCard());
+        animator = new StackAnimator();
+        endListener = new CountingEndListener();
+        frameTime = 0;
+    }
+
+    @After
+    public void tearDown() {
+        animator.cancelAll();
+    }
+
+    @Test
+    public void endsAtTheTargetOnceTheDurationIsUp() {
+        animator.animateTo(card, 1080, 400, 15, OMEGA * OMEGA, 1f, endListener);
+        animator.setVelocity(card, 3000, 0);
+        animator.setDuration(card, 50);
+
+        // 16.7ms for the first frame, then 16ms for each.
+        runFrames(3);
+        assertEquals(0, endListener.count);
+        runFrames(1);
+
+        assertEquals(1, endListener.count);
+        assertFalse(animator.isAnimating(card));
+        assertEquals(1080f, card.getX(), 0f);
+        assertEquals(15f, card.getRotation(), 0f);
+    }
+
+    @Test
+    public void stiffCriticallyDampedSpringDoesNotRing() {
+        animator.animateTo(card, 1080, 400, 15, OMEGA * OMEGA, 1f, endListener);
+
+        int frames = 0;
+        float previousX = card.getX();
+        while (animator.isAnimating(card)) {
+            runFrames(1);
+            frames++;
+            assertTrue(card.getX() >= previousX);
+            assertTrue(card.getX() <= 1080f);
+            previousX = card.getX();
+        }
+
+        assertEquals(1, endListener.count);
+        // 10 / omega is 50ms; settling to half a pixel takes a little longer.
+        assertTrue("settled after " + frames + " frames", frames <= 6);
+    }
+
+    @Test
+    public void newTargetDropsTheDuration() {
+        animator.animateTo(card, 1080, 400, 15, OMEGA * OMEGA, 1f, endListener);
+        animator.setDuration(card, 20);
+        animator.animateTo(card, 1080, 400, 15, 100f, 1f, endListener);
+
+        runFrames(2);
+
+        assertEquals(0, endListener.count);
+        assertTrue(animator.isAnimating(card));
+    }
+
+    @Test
+    public void settlesOnlyOnceTheRotationStops() {
+        card.setRotation(0.15f);
+        animator.animateTo(card, card.getX(), card.getY(), 0, 10000f, 0.2f, endListener);
+
+        runFrames(1);
+
+        // Back within a hundredth of a degree, but swinging through at about 10 degrees/s.
+        assertEquals(0, endListener.count);
+        assertTrue(animator.isAnimating(card));
+    }
+
+    @Test
+    public void frameListenerSeesTheCardsOfTheFrame() {
+        final RecordingFrameListener frameListener = new RecordingFrameListener(card, 3);
+        animator.animateTo(card, 1080, 400, 15, OMEGA * OMEGA, 1f, endListener);
+        animator.addFrameListener(frameListener);
+
+        runFrames(1);
+
+        assertEquals(1, frameListener.frames);
+        assertEquals(card.getX(), frameListener.cardX, 0f);
+        assertTrue(frameListener.cardX > TestStack.CARD_X);
+    }
+
+    @Test
+    public void frameListenerRunsUntilItAsksToStop() {
+        final RecordingFrameListener frameListener = new RecordingFrameListener(card, 2);
+        animator.addFrameListener(frameListener);
+        animator.addFrameListener(frameListener);
+
+        runFrames(4);
+
+        assertEquals(2, frameListener.frames);
+    }
+
+    @Test
+    public void removedFrameListenerIsNotCalled() {
+        final RecordingFrameListener frameListener = new RecordingFrameListener(card, 3);
+        animator.addFrameListener(frameListener);
+        runFrames(1);
+
+        animator.removeFrameListener(frameListener);
+        runFrames(2);
+
+        assertEquals(1, frameListener.frames);
+    }
+
+    @Test
+    public void frameListenerAddedOnAFrameStartsOnTheNext() {
+        final RecordingFrameListener added = new RecordingFrameListener(card, 3);
+        animator.addFrameListener(new StackAnimator.FrameListener() {
+            @Override
+            public boolean onFrame(long frameTimeNanos) {
+                animator.addFrameListener(added);
+                return false;
+            }
+        });
+
+        runFrames(1);
+        assertEquals(0, added.frames);
+        runFrames(1);
+
+        assertEquals(1, added.frames);
+    }
+
+    private void runFrames(int count) {
+        frameTime = TestStack.runFrames(animator, frameTime, count);
+    }
+
+    /**
+     * Keeps its rotation, which the views of Robolectric 3.0 drop.
+     */
+    private static final class RotatingCard extends View {
+        private float rotation;
+
+        RotatingCard() {
+            super(RuntimeEnvironment.application);
+        }
+
+        @Override
+        public void setRotation(float rotation) {
+            this.rotation = rotation;
+        }
+
+        @Override
+        public float getRotation() {
+            return rotation;
+        }
+    }
+
+    /**
+     * Records where the card is on every frame, for a given number of frames.
+     */
+    private static final class RecordingFrameListener implements StackAnimator.FrameListener {
+        private final View card;
+        private final int maxFrames;
+        int frames;
+        float cardX;
+
+        RecordingFrameListener(View card, int maxFrames) {
+            this.card = card;
+            this.maxFrames = maxFrames;
+        }
+
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            frames++;
+            cardX = card.getX();
+            return frames < maxFrames;
+        }
+    }
+
+    private static final class CountingEndListener implements StackAnimator.EndListener {
+        int count;
+
+        @Override
+        public void onAnimationEnd(View card) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.Attribute;
+import org.robolectric.shadows.RoboAttributeSet;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.DIRECT;
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static com.lorentzos.flingswipe.TestStack.layout;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Builds a stack of the default 4 cards with <code>staged_layout</code> set, running the idle
+ * passes of the {@link SwipeFlingAdapterView.StackBuilder} by hand.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class StagedLayoutTest {
+    private SwipeFlingAdapterView view;
+    private TestCardAdapter adapter;
+    private StagedLayoutRecorder metricsListener;
+
+    @Before
+    public void setUp() {
+        final List<Attribute> attributes = Collections.singletonList(new Attribute(
+                "com.lorentzos.flingswipe:attr/staged_layout", "true", "com.lorentzos.flingswipe"));
+        view = new SwipeFlingAdapterView(RuntimeEnvironment.application,
+                new RoboAttributeSet(attributes,
+                        Shadows.shadowOf(RuntimeEnvironment.application).getResourceLoader()));
+        view.setFlingListener(new SwipeFlingAdapterViewTest.NoOpFlingListener());
+        metricsListener = new StagedLayoutRecorder();
+        view.setMetricsListener(metricsListener);
+        adapter = new TestCardAdapter(100, false);
+    }
+
+    @Test
+    public void firstLayoutAttachesOnlyTheTopCard() {
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+
+        assertEquals(1, view.getChildCount());
+        assertEquals(1, adapter.bindCount);
+        assertEquals("a", topId());
+        assertEquals(0, metricsListener.stagedLayouts);
+    }
+
+    @Test
+    public void everyIdlePassAddsOneCardBelow() {
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+
+        assertTrue(view.stackBuilder.queueIdle());
+        assertEquals(2, view.getChildCount());
+        assertTrue(view.stackBuilder.queueIdle());
+        assertEquals(3, view.getChildCount());
+        // The last card ends the passes.
+        assertFalse(view.stackBuilder.queueIdle());
+        assertEquals(4, view.getChildCount());
+
+        assertEquals(4, adapter.bindCount);
+        assertEquals("a", topId());
+        assertEquals("d", ((TestCardAdapter.Card) view.getChildAt(0).getTag()).id);
+    }
+
+    @Test
+    public void stagedLayoutIsReportedOnceTheStackIsBuilt() {
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+
+        while (view.stackBuilder.queueIdle()) {
+            assertEquals(0, metricsListener.stagedLayouts);
+        }
+
+        assertEquals(1, metricsListener.stagedLayouts);
+        assertEquals(4, metricsListener.cardCount);
+        assertTrue(metricsListener.totalNanos >= metricsListener.firstCardNanos);
+    }
+
+    @Test
+    public void singleCardIsNotStaged() {
+        adapter.add(cards("a").get(0));
+        view.setAdapter(adapter);
+        layout(view);
+
+        assertEquals(1, view.getChildCount());
+        assertFalse(view.stackBuilder.queueIdle());
+        assertEquals(0, metricsListener.stagedLayouts);
+    }
+
+    @Test
+    public void updateWhichFillsTheStackLeavesTheBuilderNothingToDo() {
+        adapter.addAll(cards("a", "b"));
+        view.setAdapter(adapter);
+        layout(view);
+        assertEquals(1, view.getChildCount());
+
+        adapter.submitList(cards("a", "b", "c", "d", "e"), DIRECT);
+        ShadowLooper.runUiThreadTasks();
+        final int bindCount = adapter.bindCount;
+
+        assertFalse(view.stackBuilder.queueIdle());
+        assertEquals(4, view.getChildCount());
+        assertEquals(bindCount, adapter.bindCount);
+    }
+
+    private String topId() {
+        return ((TestCardAdapter.Card) view.getSelectedView().getTag()).id;
+    }
+
+    private static final class StagedLayoutRecorder implements SwipeMetricsListener {
+        int stagedLayouts = 0;
+        long firstCardNanos;
+        long totalNanos;
+        int cardCount;
+
+        @Override
+        public void onStagedLayout(long firstCardNanos, long totalNanos, int cardCount) {
+            stagedLayouts++;
+            this.firstCardNanos = firstCardNanos;
+            this.totalNanos = totalNanos;
+            this.cardCount = cardCount;
+        }
+
+        @Override
+        public void onStackLayout(long durationNanos, boolean incremental) {
+        }
+
+        @Override
+        public void onGetView(int position, long durationNanos, boolean recycled) {
+        }
+
+        @Override
+        public void onMakeAndAddView(long durationNanos) {
+        }
+
+        @Override
+        public void onTouchHandled(int action, long durationNanos) {
+        }
+
+        @Override
+        public void onTouchToFrame(long latencyNanos) {
+        }
+
+        @Override
+        public void onExitAnimation(long durationMillis) {
+        }
+
+        @Override
+        public void onGestureFrames(int frames, int droppedFrames) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static com.lorentzos.flingswipe.TestStack.layout;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Enqueues decisions on the main thread and runs the executor's tasks when told to, so that the
+ * tests see what the main thread does by itself.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SwipeDecisionPipelineTest {
+    private QueuedExecutor executor;
+    private RecordingConsumer consumer;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        executor = new QueuedExecutor();
+        consumer = new RecordingConsumer();
+    }
+
+    @Test
+    public void fullBatchIsDeliveredOnTheExecutor() {
+        final SwipeDecisionPipeline pipeline = new SwipeDecisionPipeline(consumer, executor, 2,
+                1000);
+
+        pipeline.enqueue(decision("a"));
+        pipeline.enqueue(decision("b"));
+
+        assertEquals(0, consumer.batches.size());
+        executor.runAll();
+        assertEquals(1, consumer.batches.size());
+        assertEquals(2, consumer.batches.get(0).size());
+    }
+
+    @Test
+    public void partialBatchWaitsForTheMaxDelay() {
+        final SwipeDecisionPipeline pipeline = new SwipeDecisionPipeline(consumer, executor, 2,
+                1000);
+
+        pipeline.enqueue(decision("a"));
+        executor.runAll();
+        assertEquals(0, consumer.batches.size());
+
+        ShadowLooper.idleMainLooper(1000);
+        executor.runAll();
+        assertEquals(1, consumer.batches.size());
+    }
+
+    @Test
+    public void fullQueueNeverRunsTheConsumerOnTheCaller() {
+        final SwipeDecisionPipeline pipeline = new SwipeDecisionPipeline(consumer, executor, 2,
+                1000, 2, SwipeDecisionPipeline.BackpressurePolicy.DROP_OLDEST);
+
+        pipeline.enqueue(decision("a"));
+        pipeline.enqueue(decision("b"));
+        pipeline.enqueue(decision("c"));
+
+        assertEquals(0, consumer.batches.size());
+        assertEquals(1, pipeline.getDroppedCount());
+        executor.runAll();
+        assertEquals(1, consumer.batches.size());
+        assertEquals("b", ((TestCardAdapter.Card) consumer.batches.get(0).get(0)
+                .getDataObject()).id);
+    }
+
+    @Test
+    public void detachedViewFlushesItsPipeline() {
+        final SwipeFlingAdapterView view =
+                new SwipeFlingAdapterView(RuntimeEnvironment.application);
+        view.setFlingListener(new SwipeFlingAdapterViewTest.NoOpFlingListener());
+        final TestCardAdapter adapter = new TestCardAdapter(100, false);
+        adapter.addAll(cards("a", "b", "c"));
+        view.setAdapter(adapter);
+        layout(view);
+        view.setSwipeDecisionPipeline(new SwipeDecisionPipeline(consumer, executor, 10, 60000));
+
+        view.getTopCardListener().selectRight();
+        long frameTime = 0;
+        for (int i = 0; i < 100 && consumer.batches.isEmpty() && executor.isEmpty(); i++) {
+            frameTime = TestStack.runFrames(view.stackAnimator, frameTime, 1);
+        }
+        executor.runAll();
+        assertEquals(0, consumer.batches.size());
+
+        view.onDetachedFromWindow();
+        executor.runAll();
+
+        assertEquals(1, consumer.batches.size());
+        assertEquals("a", ((TestCardAdapter.Card) consumer.batches.get(0).get(0)
+                .getDataObject()).id);
+    }
+
+    private static SwipeDecision decision(String id) {
+        return new SwipeDecision(cards(id).get(0), false, 0, 0);
+    }
+
+    private static final class RecordingConsumer implements SwipeDecisionPipeline.Consumer {
+        final List<List<SwipeDecision>> batches = new ArrayList<>();
+
+        @Override
+        public void onDecisions(List<SwipeDecision> decisions) {
+            batches.add(decisions);
+        }
+    }
+
+    private static final class QueuedExecutor implements Executor {
+        private final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            commands.add(command);
+        }
+
+        boolean isEmpty() {
+            return commands.isEmpty();
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+            }
+        }
+    }
+}
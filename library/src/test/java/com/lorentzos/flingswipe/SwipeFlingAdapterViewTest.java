@@ -0,0 +1,142 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.DIRECT;
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static com.lorentzos.flingswipe.TestStack.layout;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A {@link TestStack} of the default 4 cards over 6 items, updated through
+ * {@link CardStackAdapter#submitList(List, Executor)}.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SwipeFlingAdapterViewTest {
+    private SwipeFlingAdapterView view;
+    private TestCardAdapter adapter;
+
+    @Before
+    public void setUp() {
+        view = new SwipeFlingAdapterView(RuntimeEnvironment.application);
+        view.setFlingListener(new NoOpFlingListener());
+        adapter = new TestCardAdapter(100, false);
+        adapter.addAll(cards("a", "b", "c", "d", "e", "f"));
+        view.setAdapter(adapter);
+        layout(view);
+        adapter.bindCount = 0;
+    }
+
+    @Test
+    public void appendedItemsLeaveTheStackAlone() {
+        final View[] before = children();
+
+        submit(cards("a", "b", "c", "d", "e", "f", "g", "h"));
+
+        assertEquals(0, adapter.bindCount);
+        assertKeptChildren(before, -1);
+        assertEquals(8, adapter.getCount());
+    }
+
+    @Test
+    public void onlyTheEditedCardIsBoundAgain() {
+        final View[] before = children();
+        final List<TestCardAdapter.Card> edited = cards("a", "b", "c", "d", "e", "f");
+        edited.set(2, new TestCardAdapter.Card("c", "edited"));
+
+        submit(edited);
+
+        assertEquals(1, adapter.bindCount);
+        // "c" is third from the top, the children are drawn bottom first.
+        final int index = view.getChildCount() - 1 - 2;
+        assertKeptChildren(before, index);
+        assertEquals(edited.get(2), view.getChildAt(index).getTag());
+    }
+
+    @Test
+    public void cardsFillUpAStackWhichWasNotFull() {
+        adapter.clear();
+        adapter.addAll(cards("a", "b"));
+        layout(view);
+        adapter.bindCount = 0;
+        final View[] before = children();
+
+        submit(cards("a", "b", "c", "d", "e"));
+
+        assertEquals(2, adapter.bindCount);
+        assertEquals(4, view.getChildCount());
+        // The new cards go below the old ones.
+        assertSame(before[0], view.getChildAt(2));
+        assertSame(before[1], view.getChildAt(3));
+    }
+
+    @Test
+    public void reorderedStackIsBuiltAgain() {
+        submit(cards("b", "a", "c", "d", "e", "f"));
+        layout(view);
+
+        assertEquals(4, adapter.bindCount);
+        assertEquals("b", ((TestCardAdapter.Card) view.getSelectedView().getTag()).id);
+    }
+
+    private void submit(List<TestCardAdapter.Card> cards) {
+        adapter.submitList(cards, DIRECT);
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    private View[] children() {
+        final View[] children = new View[view.getChildCount()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = view.getChildAt(i);
+        }
+        return children;
+    }
+
+    /**
+     * @param reboundIndex The index of the only child which was bound again, possibly to the same
+     *                     recycled view, or -1.
+     */
+    private void assertKeptChildren(View[] before, int reboundIndex) {
+        assertEquals(before.length, view.getChildCount());
+        for (int i = 0; i < before.length; i++) {
+            if (i != reboundIndex) {
+                assertSame(before[i], view.getChildAt(i));
+            }
+        }
+    }
+
+    static class NoOpFlingListener implements SwipeFlingAdapterView.onFlingListener {
+        @Override
+        public void removeFirstObjectInAdapter() {
+        }
+
+        @Override
+        public void onLeftCardExit(Object dataObject) {
+        }
+
+        @Override
+        public void onRightCardExit(Object dataObject) {
+        }
+
+        @Override
+        public void onAdapterAboutToEmpty(int itemsInAdapter) {
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.lorentzos.flingswipe;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Lays out a stack of 3 cards over 10000 items in a RecyclerView of the {@link TestStack}.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SwipeStackLayoutManagerTest {
+    private static final int ITEM_COUNT = 10000;
+    private static final int MAX_VISIBLE = 3;
+
+    private RecyclerView recyclerView;
+    private CountingAdapter adapter;
+    private RecordingSwipeListener swipeListener;
+    private SwipeStackLayoutManager layoutManager;
+
+    @Before
+    public void setUp() {
+        recyclerView = new RecyclerView(RuntimeEnvironment.application);
+        // Removed cards leave at once instead of animating.
+        recyclerView.setItemAnimator(null);
+        adapter = new CountingAdapter(ITEM_COUNT);
+        swipeListener = new RecordingSwipeListener();
+        layoutManager = new SwipeStackLayoutManager(swipeListener, MAX_VISIBLE, 15f);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        TestStack.layout(recyclerView);
+    }
+
+    @Test
+    public void bindsOnlyTheVisibleCards() {
+        assertEquals(MAX_VISIBLE, recyclerView.getChildCount());
+        assertEquals(MAX_VISIBLE, adapter.bindCount);
+    }
+
+    @Test
+    public void firstItemIsOnTop() {
+        for (int index = 0; index < MAX_VISIBLE; index++) {
+            final View card = recyclerView.getChildAt(index);
+            assertEquals(MAX_VISIBLE - 1 - index, layoutManager.getPosition(card));
+        }
+    }
+
+    @Test
+    public void cardsAreCentered() {
+        final View top = topCard();
+
+        assertEquals((TestStack.WIDTH - TestStack.CARD_WIDTH) / 2, top.getLeft());
+        assertEquals((TestStack.HEIGHT - TestStack.CARD_HEIGHT) / 2, top.getTop());
+    }
+
+    @Test
+    public void removingTheTopItemBindsOnlyTheCardEnteringTheStack() {
+        adapter.items.remove(0);
+        adapter.notifyItemRemoved(0);
+        TestStack.layout(recyclerView);
+
+        assertEquals(MAX_VISIBLE, recyclerView.getChildCount());
+        assertEquals(MAX_VISIBLE + 1, adapter.bindCount);
+        assertEquals(1, topCard().getTag());
+    }
+
+    @Test
+    public void tapOnTheTopCardClicksItsPosition() {
+        touch(topCard(), MotionEvent.ACTION_DOWN, 0);
+        touch(topCard(), MotionEvent.ACTION_UP, 50);
+
+        assertEquals(0, swipeListener.clickedPosition);
+    }
+
+    @Test
+    public void swipeRightReportsTheTopPositionOnceTheCardExited() {
+        layoutManager.swipeRight();
+        // The exit runs on the frames of the Choreographer.
+        for (int i = 0; i < 100 && swipeListener.swipedPosition < 0; i++) {
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        }
+
+        assertEquals(0, swipeListener.swipedPosition);
+        assertEquals(Boolean.FALSE, swipeListener.swipedLeft);
+    }
+
+    private View topCard() {
+        return recyclerView.getChildAt(recyclerView.getChildCount() - 1);
+    }
+
+    private static void touch(View card, int action, long eventTime) {
+        final MotionEvent event = MotionEvent.obtain(0, eventTime, action, 375, 255, 0);
+        card.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Binds every item as a card with the item as its tag, counting the binds.
+     */
+    private static final class CountingAdapter extends RecyclerView.Adapter<CardHolder> {
+        final List<Integer> items = new ArrayList<>();
+        int bindCount = 0;
+
+        CountingAdapter(int count) {
+            for (int i = 0; i < count; i++) {
+                items.add(i);
+            }
+        }
+
+        @Override
+        public CardHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            final View card = new View(parent.getContext());
+            card.setLayoutParams(new RecyclerView.LayoutParams(TestStack.CARD_WIDTH,
+                    TestStack.CARD_HEIGHT));
+            return new CardHolder(card);
+        }
+
+        @Override
+        public void onBindViewHolder(CardHolder holder, int position) {
+            holder.itemView.setTag(items.get(position));
+            bindCount++;
+        }
+
+        @Override
+        public int getItemCount() {
+            return items.size();
+        }
+    }
+
+    private static final class CardHolder extends RecyclerView.ViewHolder {
+        CardHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static final class RecordingSwipeListener
+            implements SwipeStackLayoutManager.OnSwipeListener {
+        int swipedPosition = -1;
+        Boolean swipedLeft;
+        int clickedPosition = -1;
+
+        @Override
+        public void onCardSwiped(int position, boolean isLeft) {
+            swipedPosition = position;
+            swipedLeft = isLeft;
+        }
+
+        @Override
+        public void onCardClicked(int position) {
+            clickedPosition = position;
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.lorentzos.flingswipe;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link CardStackAdapter} of cards identified by their id, which counts the cards it binds.
+ */
+class TestCardAdapter extends CardStackAdapter<TestCardAdapter.Card> {
+    /**
+     * Diffs submitted lists on the calling thread.
+     */
+    static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    int bindCount = 0;
+
+    TestCardAdapter(int capacity, boolean stableIds) {
+        super(capacity, stableIds);
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        final View card = convertView != null ? convertView : new View(parent.getContext());
+        card.setLayoutParams(new FrameLayout.LayoutParams(TestStack.CARD_WIDTH,
+                TestStack.CARD_HEIGHT));
+        card.setTag(getItem(position));
+        bindCount++;
+        return card;
+    }
+
+    @Override
+    protected Object getItemKey(Card item) {
+        return item.id;
+    }
+
+    /**
+     * @return a card for each id.
+     */
+    static List<Card> cards(String... ids) {
+        final List<Card> cards = new ArrayList<>();
+        for (String id : ids) {
+            cards.add(new Card(id, "text of " + id));
+        }
+        return cards;
+    }
+
+    static final class Card {
+        final String id;
+        final String text;
+
+        Card(String id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Card)) {
+                return false;
+            }
+            final Card card = (Card) o;
+            return id.equals(card.id) && text.equals(card.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id.hashCode() + text.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return id + ":" + text;
+        }
+    }
+}
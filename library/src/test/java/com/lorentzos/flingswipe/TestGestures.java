@@ -0,0 +1,59 @@
+package com.lorentzos.flingswipe;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Builds the traces of simple one finger gestures on a card, through a {@link GestureRecorder},
+ * as if the card followed the finger: the touch stays at the same place on the card while it
+ * moves by the given steps.
+ */
+final class TestGestures {
+    private static final float TOUCH_X = 375f;
+    private static final float TOUCH_Y = 350f;
+
+    private TestGestures() {
+    }
+
+    /**
+     * @param stepX       The horizontal distance the card moves per event.
+     * @param moves       The number of move events.
+     * @param frameMillis The time between two events.
+     */
+    static GestureTrace drag(View card, float stepX, float stepY, int moves, long frameMillis) {
+        final TraceHolder holder = new TraceHolder();
+        final GestureRecorder recorder = new GestureRecorder(holder);
+        final long downTime = 1000;
+
+        record(recorder, card, downTime, downTime, MotionEvent.ACTION_DOWN, TOUCH_X, TOUCH_Y);
+        long time = downTime;
+        for (int i = 0; i < moves; i++) {
+            time += frameMillis;
+            record(recorder, card, downTime, time, MotionEvent.ACTION_MOVE, TOUCH_X + stepX,
+                    TOUCH_Y + stepY);
+        }
+        record(recorder, card, downTime, time + frameMillis, MotionEvent.ACTION_UP,
+                TOUCH_X + stepX, TOUCH_Y + stepY);
+        return holder.trace;
+    }
+
+    static GestureTrace tap(View card) {
+        return drag(card, 0, 0, 0, 50);
+    }
+
+    private static void record(GestureRecorder recorder, View card, long downTime,
+                               long eventTime, int action, float x, float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        recorder.record(card, event);
+        event.recycle();
+    }
+
+    private static final class TraceHolder implements GestureRecorder.Callback {
+        GestureTrace trace;
+
+        @Override
+        public void onGestureRecorded(GestureTrace trace) {
+            this.trace = trace;
+        }
+    }
+}
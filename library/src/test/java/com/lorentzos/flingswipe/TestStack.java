@@ -0,0 +1,84 @@
+package com.lorentzos.flingswipe;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * The screen the tests play on: a 1080x1920 stack of 750x510 cards, with a single card at rest at
+ * (165, 400), and the frames which move the cards.
+ */
+final class TestStack {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+    static final int CARD_WIDTH = 750;
+    static final int CARD_HEIGHT = 510;
+    static final int CARD_X = 165;
+    static final int CARD_Y = 400;
+    static final long FRAME_NANOS = 16000000;
+
+    private TestStack() {
+    }
+
+    /**
+     * @return a card at rest in a parent of the stack's size, both laid out.
+     */
+    static View card(Context context) {
+        return addCard(new View(context));
+    }
+
+    /**
+     * Puts the card at rest in a parent of the stack's size, and lays both out.
+     */
+    static <V extends View> V addCard(V card) {
+        final FrameLayout parent = new FrameLayout(card.getContext());
+        parent.addView(card, new FrameLayout.LayoutParams(CARD_WIDTH, CARD_HEIGHT));
+        layout(parent);
+        card.layout(CARD_X, CARD_Y, CARD_X + CARD_WIDTH, CARD_Y + CARD_HEIGHT);
+        return card;
+    }
+
+    /**
+     * @return a card at rest in the window of an activity, where its property animations run.
+     */
+    static View cardInWindow() {
+        final Activity activity = Robolectric.setupActivity(Activity.class);
+        final FrameLayout parent = new FrameLayout(activity);
+        final View card = new View(activity);
+        final FrameLayout.LayoutParams params =
+                new FrameLayout.LayoutParams(CARD_WIDTH, CARD_HEIGHT);
+        params.leftMargin = CARD_X;
+        params.topMargin = CARD_Y;
+        parent.addView(card, params);
+        activity.setContentView(parent, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        ShadowLooper.runUiThreadTasks();
+        return card;
+    }
+
+    /**
+     * Measures and lays out the view at the size of the stack.
+     */
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Runs the given number of frames of the animator, {@link #FRAME_NANOS} apart.
+     *
+     * @return the time of the last frame.
+     */
+    static long runFrames(StackAnimator animator, long frameTimeNanos, int count) {
+        for (int i = 0; i < count; i++) {
+            frameTimeNanos += FRAME_NANOS;
+            animator.doFrame(frameTimeNanos);
+        }
+        return frameTimeNanos;
+    }
+}
@@ -0,0 +1,134 @@
+package com.lorentzos.flingswipe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.Attribute;
+import org.robolectric.shadows.RoboAttributeSet;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.lorentzos.flingswipe.TestCardAdapter.cards;
+import static com.lorentzos.flingswipe.TestStack.layout;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Swipes the cards of a {@link TestStack} with <code>undo_depth</code> set to 2, running the
+ * frames of the exits by hand.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class UndoTest {
+    private SwipeFlingAdapterView view;
+    private TestCardAdapter adapter;
+    private RemovingFlingListener flingListener;
+    private long frameTime;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        final List<Attribute> attributes = Collections.singletonList(new Attribute(
+                "com.lorentzos.flingswipe:attr/undo_depth", "2", "com.lorentzos.flingswipe"));
+        view = new SwipeFlingAdapterView(RuntimeEnvironment.application,
+                new RoboAttributeSet(attributes,
+                        Shadows.shadowOf(RuntimeEnvironment.application).getResourceLoader()));
+        adapter = new TestCardAdapter(100, false);
+        flingListener = new RemovingFlingListener(adapter);
+        view.setFlingListener(flingListener);
+        frameTime = 0;
+    }
+
+    @Test
+    public void undoBringsBackTheLastExit() {
+        adapter.addAll(cards("a", "b", "c"));
+        view.setAdapter(adapter);
+        layout(view);
+
+        swipeRight();
+        swipeRight();
+
+        assertEquals(2, view.getUndoableCount());
+        assertEquals("b", ((TestCardAdapter.Card) view.undo()).id);
+        assertEquals("b", topId());
+        assertEquals(1, view.getUndoableCount());
+        assertEquals(0, flingListener.exits);
+    }
+
+    @Test
+    public void exitOfACardNoLongerOnTopIsNotRecorded() {
+        adapter.addAll(cards("a"));
+        view.setAdapter(adapter);
+        layout(view);
+        final FlingCardListener listener = view.getTopCardListener();
+
+        swipeRight();
+        // The listener still holds the retained card, the stack is empty.
+        listener.selectRight();
+        runExit();
+
+        assertEquals(1, view.getUndoableCount());
+        assertEquals("a", ((TestCardAdapter.Card) view.undo()).id);
+        assertNull(view.undo());
+        assertEquals("a", topId());
+
+        swipeRight();
+        view.commitExits();
+        assertEquals(1, flingListener.exits);
+        assertEquals(0, adapter.getCount());
+    }
+
+    private void swipeRight() {
+        view.getTopCardListener().selectRight();
+        runExit();
+    }
+
+    private void runExit() {
+        for (int i = 0; i < 100 && view.getTopCardListener().isExiting(); i++) {
+            frameTime = TestStack.runFrames(view.stackAnimator, frameTime, 1);
+        }
+    }
+
+    private String topId() {
+        return ((TestCardAdapter.Card) view.getSelectedView().getTag()).id;
+    }
+
+    private static final class RemovingFlingListener
+            implements SwipeFlingAdapterView.onFlingListener {
+        private final TestCardAdapter adapter;
+        int exits = 0;
+
+        RemovingFlingListener(TestCardAdapter adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override
+        public void removeFirstObjectInAdapter() {
+            adapter.removeFirst();
+        }
+
+        @Override
+        public void onLeftCardExit(Object dataObject) {
+            exits++;
+        }
+
+        @Override
+        public void onRightCardExit(Object dataObject) {
+            exits++;
+        }
+
+        @Override
+        public void onAdapterAboutToEmpty(int itemsInAdapter) {
+        }
+
+        @Override
+        public void onScroll(float scrollProgressPercent) {
+        }
+    }
+}